@@ -1,7 +1,11 @@
 package net.eidee.minecraft.experiencebottler.gametest;
 
 import java.lang.reflect.Method;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBank;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBanks;
 import net.eidee.minecraft.experiencebottler.block.Blocks;
+import net.eidee.minecraft.experiencebottler.block.entity.ExperienceBottlerBlockEntity;
+import net.eidee.minecraft.experiencebottler.component.DataComponentTypes;
 import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
 import net.eidee.minecraft.experiencebottler.item.Items;
 import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
@@ -9,12 +13,21 @@ import net.eidee.minecraft.experiencebottler.screen.ExperienceSource;
 import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
 import net.fabricmc.fabric.api.gametest.v1.CustomTestMethodInvoker;
 import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.component.DataComponents;
 import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.ExperienceOrb;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ClickType;
 import net.minecraft.world.inventory.ContainerLevelAccess;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.GameType;
+import net.minecraft.world.phys.Vec3;
 
 public class ExperienceBottlerGameTests implements CustomTestMethodInvoker {
   private static final BlockPos BOTTLER_POS = new BlockPos(1, 1, 1);
@@ -48,6 +61,39 @@ public class ExperienceBottlerGameTests implements CustomTestMethodInvoker {
     context.succeed();
   }
 
+  @GameTest
+  public void breakingBottlerClosesOpenMenu(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    Player player = context.makeMockServerPlayerInLevel();
+    player.setPos(context.absoluteVec(new Vec3(1.5, 1.0, 2.5)));
+    context.useBlock(BOTTLER_POS, player);
+    AbstractContainerMenu menu = player.containerMenu;
+    context.assertTrue(menu.stillValid(player), "the menu should be valid next to the bottler");
+
+    context.destroyBlock(BOTTLER_POS);
+
+    context.assertFalse(menu.stillValid(player), "the menu should be invalid once broken");
+    context.succeedWhen(
+        () ->
+            context.assertTrue(
+                player.containerMenu != menu, "breaking the bottler should close the menu"));
+  }
+
+  @GameTest
+  public void walkingAwayInvalidatesOpenMenu(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    Player player = context.makeMockServerPlayerInLevel();
+    player.setPos(context.absoluteVec(new Vec3(1.5, 1.0, 2.5)));
+    context.useBlock(BOTTLER_POS, player);
+    AbstractContainerMenu menu = player.containerMenu;
+    context.assertTrue(menu.stillValid(player), "the menu should be valid next to the bottler");
+
+    player.setPos(context.absoluteVec(new Vec3(1.5, 1.0, 20.5)));
+
+    context.assertFalse(menu.stillValid(player), "the menu should be invalid out of reach");
+    context.succeed();
+  }
+
   @GameTest
   public void createsResultWhenBottleAndExperienceAreAvailable(GameTestHelper context) {
     Player player = createPlayer(context);
@@ -120,11 +166,8 @@ public class ExperienceBottlerGameTests implements CustomTestMethodInvoker {
 
     ItemStack moved = handler.quickMoveStack(player, RESULT_SLOT);
 
-    context.assertFalse(moved.isEmpty(), "shift-click should move the crafted bottled XP stack");
-    context.assertValueEqual(
-        BOTTLED_EXPERIENCE,
-        BottledExperienceComponent.getExperienceValue(moved),
-        "shift-click should move the bottled XP stack with the requested experience value");
+    // The bulk pass has moved everything, so the quick-move loop must not call it again.
+    context.assertTrue(moved.isEmpty(), "shift-click should end the quick-move loop");
     context.assertValueEqual(
         150L,
         ExperienceUtil.getTotalExperience(player),
@@ -147,6 +190,380 @@ public class ExperienceBottlerGameTests implements CustomTestMethodInvoker {
     context.succeed();
   }
 
+  @GameTest
+  public void shiftClickResultBottlesWholeStackAtOnce(GameTestHelper context) {
+    Player player = createPlayer(context);
+    ExperienceUtil.addExperience(player, 1000);
+
+    ExperienceBottlerScreenHandler handler = createHandler(player);
+    setInputBottle(handler, 5);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+
+    handler.quickMoveStack(player, RESULT_SLOT);
+
+    context.assertValueEqual(
+        500L,
+        ExperienceUtil.getTotalExperience(player),
+        "shift-click should deduct the experience for every bottle at once");
+    context.assertTrue(
+        handler.getSlot(INPUT_SLOT).getItem().isEmpty(),
+        "shift-click should consume the whole stack of glass bottles");
+    context.assertTrue(
+        player
+            .getInventory()
+            .contains(
+                stack ->
+                    stack.getItem() == Items.BOTTLED_EXPERIENCE
+                        && stack.getCount() == 5
+                        && BottledExperienceComponent.getExperienceValue(stack)
+                            == BOTTLED_EXPERIENCE),
+        "shift-click should place all bottled XP into the player's inventory as one stack");
+    context.succeed();
+  }
+
+  @GameTest
+  public void creativeShiftClickResultBottlesInputStackOnce(GameTestHelper context) {
+    Player player = context.makeMockPlayer(GameType.CREATIVE);
+
+    ExperienceBottlerScreenHandler handler = createHandler(player);
+    setInputBottle(handler, 5);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+
+    handler.clicked(RESULT_SLOT, 0, ClickType.QUICK_MOVE, player);
+
+    context.assertValueEqual(
+        5,
+        player.getInventory().countItem(Items.BOTTLED_EXPERIENCE),
+        "one shift-click should bottle the input stack once, not until the inventory is full");
+    context.succeed();
+  }
+
+  @GameTest
+  public void bulkBottlingStopsWhenExperienceRunsOut(GameTestHelper context) {
+    Player player = createPlayer(context);
+    ExperienceUtil.addExperience(player, 250);
+
+    ExperienceBottlerScreenHandler handler = createHandler(player);
+    setInputBottle(handler, 5);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+
+    int bottled = handler.bottleInBulk(player, 5);
+
+    context.assertValueEqual(2, bottled, "only two bottles can be filled with 250 experience");
+    context.assertValueEqual(
+        50L,
+        ExperienceUtil.getTotalExperience(player),
+        "bulk bottling should deduct the experience of the filled bottles only");
+    context.assertValueEqual(
+        3,
+        handler.getSlot(INPUT_SLOT).getItem().getCount(),
+        "bulk bottling should leave the unfilled glass bottles in the input");
+    context.assertTrue(
+        handler.getSlot(RESULT_SLOT).getItem().isEmpty(),
+        "result slot should be empty when the remaining experience is not enough");
+    context.succeed();
+  }
+
+  @GameTest
+  public void keepsResultStackWhenOutcomeIsUnchanged(GameTestHelper context) {
+    Player player = createPlayer(context);
+    ExperienceUtil.addExperience(player, 250);
+
+    ExperienceBottlerScreenHandler handler = createHandler(player);
+    setInputBottle(handler, 1);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+    ItemStack result = handler.getSlot(RESULT_SLOT).getItem();
+
+    setInputBottle(handler, 2);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+    handler.broadcastChanges();
+
+    context.assertTrue(
+        handler.getSlot(RESULT_SLOT).getItem() == result,
+        "result stack should not be rebuilt when its outcome is unchanged");
+
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE + 1);
+
+    context.assertFalse(
+        handler.getSlot(RESULT_SLOT).getItem() == result,
+        "result stack should be rebuilt when the bottling experience changes");
+    context.assertValueEqual(
+        BOTTLED_EXPERIENCE + 1,
+        BottledExperienceComponent.getExperienceValue(handler.getSlot(RESULT_SLOT).getItem()),
+        "rebuilt result should store the new experience amount");
+    context.succeed();
+  }
+
+  @GameTest
+  public void bulkBottlingSplitsExperienceIntoDenominations(GameTestHelper context) {
+    Player player = createPlayer(context);
+    ExperienceUtil.addExperience(player, 2000);
+
+    ExperienceBottlerScreenHandler handler =
+        new ExperienceBottlerScreenHandler(
+            0,
+            player.getInventory(),
+            ExperienceSource.fromPlayer(player, ContainerLevelAccess.NULL),
+            true);
+    setInputBottle(handler, 4);
+    handler.setBottlingExperience(1234);
+
+    int bottled = handler.bottleInBulk(player, 4);
+
+    context.assertValueEqual(4, bottled, "1234 experience should be split into four bottles");
+    context.assertValueEqual(
+        2000L - 1234L,
+        ExperienceUtil.getTotalExperience(player),
+        "bulk bottling should deduct the whole split once");
+    for (int[] expected : new int[][] {{1000, 1}, {100, 2}, {34, 1}}) {
+      context.assertTrue(
+          player
+              .getInventory()
+              .contains(
+                  stack ->
+                      stack.getItem() == Items.BOTTLED_EXPERIENCE
+                          && stack.getCount() == expected[1]
+                          && BottledExperienceComponent.getExperienceValue(stack) == expected[0]),
+          "the inventory should hold " + expected[1] + " bottle(s) of " + expected[0] + " XP");
+    }
+    context.succeed();
+  }
+
+  @GameTest
+  public void sneakDrinkingConsumesWholeStack(GameTestHelper context) {
+    Player player = createPlayer(context);
+    player.setShiftKeyDown(true);
+
+    ItemStack bottles = new ItemStack(Items.BOTTLED_EXPERIENCE, 3);
+    BottledExperienceComponent.setExperienceValue(bottles, BOTTLED_EXPERIENCE);
+    ItemStack remainder = bottles.finishUsingItem(context.getLevel(), player);
+
+    context.assertValueEqual(
+        3L * BOTTLED_EXPERIENCE,
+        ExperienceUtil.getTotalExperience(player),
+        "sneak drinking should add the experience of every bottle in the stack");
+    context.assertTrue(
+        remainder.is(net.minecraft.world.item.Items.GLASS_BOTTLE) && remainder.getCount() == 3,
+        "sneak drinking should return one glass bottle per drunk bottle");
+    context.succeed();
+  }
+
+  @GameTest
+  public void bottlesShareExperienceComponentInstances(GameTestHelper context) {
+    ItemStack first = new ItemStack(Items.BOTTLED_EXPERIENCE);
+    ItemStack second = new ItemStack(Items.BOTTLED_EXPERIENCE);
+    BottledExperienceComponent.setExperienceValue(first, 1234);
+    BottledExperienceComponent.setExperienceValue(second, 1234);
+
+    context.assertTrue(
+        first.get(DataComponentTypes.BOTTLED_EXPERIENCE)
+            == second.get(DataComponentTypes.BOTTLED_EXPERIENCE),
+        "bottles with the same experience should share one component instance");
+    context.assertTrue(
+        BottledExperienceComponent.of(BOTTLED_EXPERIENCE)
+            == BottledExperienceComponent.of(BOTTLED_EXPERIENCE),
+        "denominations should always map to the same component instance");
+    context.succeed();
+  }
+
+  @GameTest
+  public void bottlesFromBlockEntityTank(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+    tank.addExperience(250);
+
+    Player player = createPlayer(context);
+    ExperienceBottlerScreenHandler handler =
+        new ExperienceBottlerScreenHandler(
+            0, player.getInventory(), ExperienceSource.fromBlockEntity(tank));
+    setInputBottle(handler, 1);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+    handler.quickMoveStack(player, RESULT_SLOT);
+
+    context.assertValueEqual(
+        150L, tank.getStoredExperience(), "bottling should take the experience from the tank");
+    context.assertValueEqual(
+        0L,
+        ExperienceUtil.getTotalExperience(player),
+        "bottling from the tank should leave the player's experience alone");
+    context.succeed();
+  }
+
+  @GameTest
+  public void viewersShareOneTank(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+    tank.addExperience(150);
+
+    Player first = createPlayer(context);
+    Player second = createPlayer(context);
+    ExperienceBottlerScreenHandler firstHandler =
+        new ExperienceBottlerScreenHandler(
+            0, first.getInventory(), ExperienceSource.fromBlockEntity(tank));
+    ExperienceBottlerScreenHandler secondHandler =
+        new ExperienceBottlerScreenHandler(
+            1, second.getInventory(), ExperienceSource.fromBlockEntity(tank));
+    setInputBottle(firstHandler, 1);
+    setInputBottle(secondHandler, 1);
+    firstHandler.setBottlingExperience(BOTTLED_EXPERIENCE);
+    secondHandler.setBottlingExperience(BOTTLED_EXPERIENCE);
+
+    firstHandler.quickMoveStack(first, RESULT_SLOT);
+    secondHandler.quickMoveStack(second, RESULT_SLOT);
+    firstHandler.removed(first);
+    secondHandler.removed(second);
+
+    context.assertValueEqual(
+        50L, tank.getStoredExperience(), "viewers should bottle from the same tank");
+    context.succeed();
+  }
+
+  @GameTest
+  public void closingViewerKeepsTankBottlingExperienceItDidNotChange(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+
+    Player first = createPlayer(context);
+    Player second = createPlayer(context);
+    ExperienceBottlerScreenHandler firstHandler =
+        new ExperienceBottlerScreenHandler(
+            0, first.getInventory(), ExperienceSource.fromBlockEntity(tank));
+    ExperienceBottlerScreenHandler secondHandler =
+        new ExperienceBottlerScreenHandler(
+            1, second.getInventory(), ExperienceSource.fromBlockEntity(tank));
+    firstHandler.setBottlingExperience(BOTTLED_EXPERIENCE);
+
+    firstHandler.removed(first);
+    secondHandler.removed(second);
+
+    context.assertValueEqual(
+        BOTTLED_EXPERIENCE,
+        tank.getBottlingExperience(),
+        "a viewer that did not change the bottling experience should not overwrite it");
+    context.succeed();
+  }
+
+  @GameTest
+  public void bottlesFromBank(GameTestHelper context) {
+    ExperienceBank bank = ExperienceBanks.get();
+    context.assertTrue(bank != null, "the experience bank should be open");
+    Player player = createPlayer(context);
+    bank.deposit(player.getUUID(), 250);
+
+    ExperienceBottlerScreenHandler handler =
+        new ExperienceBottlerScreenHandler(
+            0,
+            player.getInventory(),
+            ExperienceSource.fromBank(player, ContainerLevelAccess.NULL, bank));
+    setInputBottle(handler, 1);
+    handler.setBottlingExperience(BOTTLED_EXPERIENCE);
+    handler.quickMoveStack(player, RESULT_SLOT);
+
+    context.assertValueEqual(
+        150L,
+        bank.getBalance(player.getUUID()),
+        "bottling should take the experience from the bank");
+    context.assertValueEqual(
+        150L,
+        bank.withdraw(player.getUUID(), Long.MAX_VALUE),
+        "withdrawing should stop at the balance");
+    context.succeed();
+  }
+
+  @GameTest
+  public void switchSourceButtonReopensMenuOnBank(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBank bank = ExperienceBanks.get();
+    context.assertTrue(bank != null, "the experience bank should be open");
+
+    Player player = context.makeMockServerPlayerInLevel();
+    bank.deposit(player.getUUID(), 250);
+    context.useBlock(BOTTLER_POS, player);
+    ExperienceBottlerScreenHandler playerMenu = (ExperienceBottlerScreenHandler) player.containerMenu;
+    playerMenu.clickMenuButton(player, ExperienceBottlerScreenHandler.SWITCH_SOURCE_BUTTON);
+
+    context.assertTrue(
+        player.containerMenu instanceof ExperienceBottlerScreenHandler
+            && player.containerMenu != playerMenu,
+        "the switch button should reopen the menu");
+    ExperienceBottlerScreenHandler bankMenu = (ExperienceBottlerScreenHandler) player.containerMenu;
+    setInputBottle(bankMenu, 1);
+    bankMenu.setBottlingExperience(BOTTLED_EXPERIENCE);
+    bankMenu.quickMoveStack(player, RESULT_SLOT);
+
+    context.assertValueEqual(
+        150L,
+        bank.getBalance(player.getUUID()),
+        "the reopened menu should bottle from the bank");
+    context.succeed();
+  }
+
+  @GameTest
+  public void itemStorageMovesWholeBatchesInOneTransfer(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+    tank.addExperience(250);
+    tank.setBottlingExperience(BOTTLED_EXPERIENCE);
+    Storage<ItemVariant> storage = tank.getItemStorage();
+
+    long inserted;
+    long extracted;
+    try (Transaction transaction = Transaction.openOuter()) {
+      inserted =
+          storage.insert(
+              ItemVariant.of(net.minecraft.world.item.Items.GLASS_BOTTLE), 5, transaction);
+      extracted = storage.extract(storage.iterator().next().getResource(), 5, transaction);
+      transaction.commit();
+    }
+
+    context.assertValueEqual(5L, inserted, "all glass bottles should be inserted in one call");
+    context.assertValueEqual(2L, extracted, "only two bottles can be filled with 250 experience");
+    context.assertValueEqual(3, tank.getGlassBottles(), "three glass bottles should remain");
+    context.assertValueEqual(50L, tank.getStoredExperience(), "50 experience should remain");
+    context.succeed();
+  }
+
+  @GameTest
+  public void itemStorageRejectsGlassBottlesWithComponents(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+    ItemStack namedBottle = new ItemStack(net.minecraft.world.item.Items.GLASS_BOTTLE);
+    namedBottle.set(DataComponents.CUSTOM_NAME, Component.literal("Named"));
+
+    long inserted;
+    try (Transaction transaction = Transaction.openOuter()) {
+      inserted = tank.getItemStorage().insert(ItemVariant.of(namedBottle), 5, transaction);
+      transaction.commit();
+    }
+
+    context.assertValueEqual(0L, inserted, "named glass bottles should not be inserted");
+    context.assertValueEqual(0, tank.getGlassBottles(), "the buffer should stay empty");
+    context.succeed();
+  }
+
+  @GameTest
+  public void absorbingBottlerCollectsNearbyOrbs(GameTestHelper context) {
+    context.setBlock(BOTTLER_POS, Blocks.EXPERIENCE_BOTTLER.defaultBlockState());
+    ExperienceBottlerBlockEntity tank =
+        context.getBlockEntity(BOTTLER_POS, ExperienceBottlerBlockEntity.class);
+    tank.setAbsorbingOrbs(true);
+
+    Vec3 orbPos = context.absoluteVec(new Vec3(3.5, 2.0, 1.5));
+    context
+        .getLevel()
+        .addFreshEntity(new ExperienceOrb(context.getLevel(), orbPos.x, orbPos.y, orbPos.z, 10));
+
+    context.succeedWhen(
+        () ->
+            context.assertValueEqual(
+                10L, tank.getStoredExperience(), "the orb should be absorbed into the tank"));
+  }
+
   @Override
   public void invokeTestMethod(GameTestHelper context, Method method)
       throws ReflectiveOperationException {
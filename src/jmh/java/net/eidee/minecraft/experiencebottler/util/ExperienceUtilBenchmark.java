@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.util;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the hot paths of {@link ExperienceUtil}. The parameters cover each segment of the
+ * vanilla experience curve (0-14, 15-29, 30+) as well as the clamp at the highest safe level. The
+ * public methods use the level curve chosen by the {@code experiencebottler.levelCurve} system
+ * property, while the {@code LevelCurveState} benchmarks compare the curves side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExperienceUtilBenchmark {
+  @State(Scope.Thread)
+  public static class LevelState {
+    // 7, 22, 1000, 21863 and one beyond the clamp.
+    @Param({"7", "22", "1000", "21863", "30000"})
+    public int level;
+  }
+
+  @State(Scope.Thread)
+  public static class TotalExperienceState {
+    // Halfway into levels 7, 22, 117 and 1000, exactly level 21863, and the int cap.
+    @Param({"101", "715", "45255", "4344141", "2147407943", "2147483647"})
+    public long experience;
+  }
+
+  @State(Scope.Thread)
+  public static class LevelCurveState {
+    @Param({"ANALYTIC", "TABLE"})
+    public String curveName;
+
+    @Param({"101", "715", "45255", "4344141", "2147407943"})
+    public int experience;
+
+    ExperienceUtil.LevelCurve curve;
+
+    @Setup
+    public void setUp() {
+      curve = ExperienceUtil.LevelCurve.valueOf(curveName);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class AddExperienceState {
+    // Levels 0, 30 and 1000.
+    @Param({"0", "1395", "4339720"})
+    public int initialExperience;
+
+    // A single bottle, a large bottle and the biggest bottle from the creative tab.
+    @Param({"100", "-100", "500000", "-500000"})
+    public int experience;
+
+    public PlayerStandIn player;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+      player = new PlayerStandIn();
+      ExperienceUtil.addExperience(player, initialExperience);
+    }
+  }
+
+  @Benchmark
+  public int getLevelFromTotalExperience(TotalExperienceState state) {
+    return ExperienceUtil.getLevelFromTotalExperience(state.experience);
+  }
+
+  @Benchmark
+  public int levelFromTotalExperience(LevelCurveState state) {
+    return state.curve.levelFromTotalExperience(state.experience);
+  }
+
+  @Benchmark
+  public long totalExperienceAtLevel(LevelCurveState state, LevelState level) {
+    return state.curve.totalExperienceAtLevel(Math.min(level.level, 21863));
+  }
+
+  @Benchmark
+  public long getTotalExperienceToReachLevel(LevelState state) {
+    return ExperienceUtil.getTotalExperienceToReachLevel(state.level, 0.5F);
+  }
+
+  @Benchmark
+  public long getNextLevelExperience(LevelState state) {
+    return ExperienceUtil.getNextLevelExperience(state.level);
+  }
+
+  @Benchmark
+  public PlayerStandIn addExperience(AddExperienceState state) {
+    ExperienceUtil.addExperience(state.player, state.experience);
+    return state.player;
+  }
+
+  /** A player without a world, holding only the fields that experience calculations touch. */
+  public static class PlayerStandIn implements ExperienceUtil.ExperienceHolder {
+    private int experienceLevel;
+    private float experienceProgress;
+    private int totalExperience;
+    private int score;
+
+    @Override
+    public int getExperienceLevel() {
+      return experienceLevel;
+    }
+
+    @Override
+    public void setExperienceLevel(int level) {
+      experienceLevel = level;
+    }
+
+    @Override
+    public float getExperienceProgress() {
+      return experienceProgress;
+    }
+
+    @Override
+    public void setExperienceProgress(float progress) {
+      experienceProgress = progress;
+    }
+
+    @Override
+    public int getTotalExperience() {
+      return totalExperience;
+    }
+
+    @Override
+    public void setTotalExperience(int totalExperience) {
+      this.totalExperience = totalExperience;
+    }
+
+    @Override
+    public int getScore() {
+      return score;
+    }
+
+    @Override
+    public void setScore(int score) {
+      this.score = score;
+    }
+
+    @Override
+    public void onLevelUp(int oldLevel, int newLevel) {}
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+import org.jetbrains.annotations.Nullable;
+
+/** The kinds of experience movements recorded in the audit log. */
+public enum AuditEventType {
+  /** Bottles were filled, and their experience was removed from the source. */
+  BOTTLE(1),
+  /** Bottles were filled by a player in creative mode, without removing any experience. */
+  CREATIVE_BOTTLE(2),
+  /** Bottles were drunk, and their experience was given to the player. */
+  DRINK(3),
+  /** Records were dropped because the buffer was full. The experience field holds the count. */
+  GAP(4),
+  /** Bottles were poured into the source, and their experience was added to it. */
+  POUR(5),
+  /** Bottles were poured by a player in creative mode, without using up the bottles. */
+  CREATIVE_POUR(6),
+  /** The player's own experience was moved into the source. */
+  DEPOSIT(7);
+
+  private static final AuditEventType[] BY_ID = new AuditEventType[8];
+
+  static {
+    for (AuditEventType type : values()) {
+      BY_ID[type.id] = type;
+    }
+  }
+
+  private final int id;
+
+  AuditEventType(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  @Nullable
+  public static AuditEventType byId(int id) {
+    return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+  }
+}
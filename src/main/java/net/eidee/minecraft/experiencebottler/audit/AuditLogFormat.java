@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+/**
+ * The layout of the audit log files.
+ *
+ * <p>A file starts with a header of {@link #HEADER_SIZE} bytes: the magic number, the version, the
+ * record size, the creation time in milliseconds and the 32-byte seed of the MAC chain. The seed is
+ * the tag of the last record of the previous file, padded with zeros, or all zeros for the first
+ * file. The records follow, each {@link #RECORD_SIZE} bytes long:
+ *
+ * <pre>
+ *  0  long  time in milliseconds
+ *  8  long  most significant bits of the player's UUID
+ * 16  long  least significant bits of the player's UUID
+ * 24  long  experience
+ * 32  byte  source id
+ * 33  3     event type id
+ * 36  int   bottles
+ * 40  long  sequence number
+ * 48  16    tag
+ * </pre>
+ *
+ * <p>The tag is the first {@link #TAG_SIZE} bytes of the chain value {@code HMAC(key, previous
+ * chain value || record data)}, where the chain starts at the seed. Changing, removing or
+ * reordering a record breaks every tag after it. All values are big-endian.
+ *
+ * <p>Records of the {@link AuditSource#AUTOMATION} source hold zero and the packed position of the
+ * bottler instead of a UUID. Version 1 files have no source id, so all their records read as
+ * {@link AuditSource#PLAYER}.
+ */
+public final class AuditLogFormat {
+  public static final long MAGIC = 0x5850415544495431L;
+  public static final int VERSION = 2;
+  public static final int HEADER_SIZE = 64;
+  public static final int SEED_OFFSET = 24;
+  public static final int CHAIN_SIZE = 32;
+  public static final int DATA_SIZE = 48;
+  public static final int TAG_SIZE = 16;
+  public static final int RECORD_SIZE = DATA_SIZE + TAG_SIZE;
+  public static final String MAC_ALGORITHM = "HmacSHA256";
+  public static final String FILE_PREFIX = "audit-";
+  public static final String FILE_SUFFIX = ".log";
+  public static final int SOURCE_SHIFT = 24;
+  public static final int TYPE_MASK = (1 << SOURCE_SHIFT) - 1;
+
+  private AuditLogFormat() {}
+
+  /** Packs a source and an event type into the int at offset 32 of a record. */
+  public static int packType(AuditEventType type, AuditSource source) {
+    return source.getId() << SOURCE_SHIFT | type.getId();
+  }
+}
@@ -0,0 +1,492 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads the audit logs written by {@link ExperienceAuditLog} and reports the net flow of
+ * experience of each player, without starting Minecraft. It is the entry point of the mod jar:
+ *
+ * <pre>
+ * java -jar experiencebottler.jar [--key &lt;key file&gt;] &lt;log directory or files...&gt;
+ * </pre>
+ *
+ * <p>The files are memory-mapped and read in parallel on a fork-join pool: each file's MAC chain is
+ * verified by one task, the records are scanned in chunks that sort them into shards by player,
+ * and each shard is then merged by one task. The MAC chains are only verified if the key is given.
+ */
+public final class AuditLogTool {
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG.withOrder(ByteOrder.BIG_ENDIAN);
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.BIG_ENDIAN);
+  private static final int CHUNK_RECORDS = 1 << 16;
+  private static final int SHARDS = 64;
+
+  private AuditLogTool() {}
+
+  /**
+   * The anomalies reported for a player. Bottles change hands through trades, gifts and hoppers, so
+   * drinking more than the player bottled is not one; it is only checked for the whole server.
+   */
+  enum Flag {
+    /** Bottles were filled or poured in creative mode, so experience was minted without a debit. */
+    MINTED_WITHOUT_DEBIT
+  }
+
+  /**
+   * The experience moved by one player, or by the automation of one bottler. Only bottles filled
+   * from the player's own experience are debited from the player; bottles filled from a tank or the
+   * bank are withdrawn.
+   */
+  static final class PlayerFlow {
+    long debited;
+    long withdrawn;
+    long deposited;
+    long bottled;
+    long minted;
+    long mintedInTanks;
+    long poured;
+    long drunk;
+    long drunkBottles;
+
+    void add(AuditEventType type, AuditSource source, long experience, int bottles) {
+      switch (type) {
+        case BOTTLE -> {
+          if (source == AuditSource.PLAYER) {
+            debited += experience;
+          } else {
+            withdrawn += experience;
+          }
+          bottled += bottles;
+        }
+        case CREATIVE_BOTTLE -> {
+          minted += experience;
+          bottled += bottles;
+        }
+        case DRINK -> {
+          drunk += experience;
+          drunkBottles += bottles;
+        }
+        case POUR -> poured += experience;
+        case CREATIVE_POUR -> mintedInTanks += experience;
+        case DEPOSIT -> deposited += experience;
+        case GAP -> {}
+      }
+    }
+
+    void merge(PlayerFlow other) {
+      debited += other.debited;
+      withdrawn += other.withdrawn;
+      deposited += other.deposited;
+      bottled += other.bottled;
+      minted += other.minted;
+      mintedInTanks += other.mintedInTanks;
+      poured += other.poured;
+      drunk += other.drunk;
+      drunkBottles += other.drunkBottles;
+    }
+
+    /** Returns the experience the player gained through the mod, negative if it lost some. */
+    long getNet() {
+      return drunk - debited;
+    }
+
+    Set<Flag> getFlags() {
+      Set<Flag> flags = EnumSet.noneOf(Flag.class);
+      if (minted > 0 || mintedInTanks > 0) {
+        flags.add(Flag.MINTED_WITHOUT_DEBIT);
+      }
+      return flags;
+    }
+
+    /**
+     * Returns whether more experience left bottles, by drinking or pouring, than was put into them.
+     * Only meaningful for the total of the whole server.
+     */
+    boolean isOverdrawn() {
+      return drunk + poured > debited + withdrawn + minted;
+    }
+  }
+
+  /** A mapped log file. */
+  private record LogFile(Path path, MemorySegment segment, long records) {
+    long recordOffset(long record) {
+      return AuditLogFormat.HEADER_SIZE + record * AuditLogFormat.RECORD_SIZE;
+    }
+  }
+
+  /** The result of checking one file. */
+  private record FileReport(
+      Path path, long records, long droppedRecords, @Nullable String problem) {}
+
+  private record Chunk(LogFile file, long start, long end) {}
+
+  public static void main(String[] args) throws Exception {
+    Path keyPath = null;
+    List<Path> inputs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--key") && i + 1 < args.length) {
+        keyPath = Path.of(args[++i]);
+      } else {
+        inputs.add(Path.of(args[i]));
+      }
+    }
+    if (inputs.isEmpty()) {
+      System.err.println(
+          "Usage: java -jar experiencebottler.jar [--key <key file>] <log directory or files...>");
+      System.exit(2);
+      return;
+    }
+    byte[] key = keyPath != null ? Files.readAllBytes(keyPath) : null;
+    run(listFiles(inputs), key, System.out);
+  }
+
+  private static List<Path> listFiles(List<Path> inputs) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (Path input : inputs) {
+      if (Files.isDirectory(input)) {
+        try (Stream<Path> stream = Files.list(input)) {
+          stream
+              .filter(path -> path.getFileName().toString().startsWith(AuditLogFormat.FILE_PREFIX))
+              .filter(path -> path.getFileName().toString().endsWith(AuditLogFormat.FILE_SUFFIX))
+              .forEach(files::add);
+        }
+      } else {
+        files.add(input);
+      }
+    }
+    // The file names hold the creation time, so this is the order they were written in.
+    files.sort(Comparator.comparing(path -> path.getFileName().toString()));
+    return files;
+  }
+
+  static void run(List<Path> paths, @Nullable byte[] key, PrintStream out)
+      throws IOException, InterruptedException, ExecutionException {
+    long startTime = System.nanoTime();
+    try (Arena arena = Arena.ofShared()) {
+      List<LogFile> files = new ArrayList<>(paths.size());
+      for (Path path : paths) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          long size = channel.size();
+          MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+          long records =
+              Math.max(size - AuditLogFormat.HEADER_SIZE, 0) / AuditLogFormat.RECORD_SIZE;
+          files.add(new LogFile(path, segment, records));
+        }
+      }
+
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+      List<ForkJoinTask<FileReport>> checks = new ArrayList<>();
+      for (LogFile file : files) {
+        checks.add(pool.submit(() -> check(file, key)));
+      }
+
+      List<ForkJoinTask<List<Map<UUID, PlayerFlow>>>> scans = new ArrayList<>();
+      for (LogFile file : files) {
+        if (!hasValidHeader(file.segment())) {
+          continue;
+        }
+        for (long start = 0; start < file.records(); start += CHUNK_RECORDS) {
+          Chunk chunk = new Chunk(file, start, Math.min(start + CHUNK_RECORDS, file.records()));
+          scans.add(pool.submit(() -> scan(chunk)));
+        }
+      }
+      List<List<Map<UUID, PlayerFlow>>> scanned = new ArrayList<>(scans.size());
+      for (ForkJoinTask<List<Map<UUID, PlayerFlow>>> scan : scans) {
+        scanned.add(scan.get());
+      }
+
+      List<ForkJoinTask<Map<UUID, PlayerFlow>>> merges = new ArrayList<>(SHARDS);
+      for (int shard = 0; shard < SHARDS; shard++) {
+        int index = shard;
+        merges.add(pool.submit(() -> mergeShard(scanned, index)));
+      }
+      Map<UUID, PlayerFlow> flows = new HashMap<>();
+      for (ForkJoinTask<Map<UUID, PlayerFlow>> merge : merges) {
+        flows.putAll(merge.get());
+      }
+
+      List<FileReport> reports = new ArrayList<>(checks.size());
+      for (ForkJoinTask<FileReport> check : checks) {
+        reports.add(check.get());
+      }
+      report(reports, linkFiles(files, reports), flows, key != null, startTime, out);
+    }
+  }
+
+  private static boolean hasValidHeader(MemorySegment segment) {
+    if (segment.byteSize() < AuditLogFormat.HEADER_SIZE) {
+      return false;
+    }
+    int version = segment.get(INT, 8);
+    return segment.get(LONG, 0) == AuditLogFormat.MAGIC
+        && version >= 1
+        && version <= AuditLogFormat.VERSION
+        && segment.get(INT, 12) == AuditLogFormat.RECORD_SIZE;
+  }
+
+  /** Checks the header, the sequence numbers and, if the key is given, the MAC chain of a file. */
+  private static FileReport check(LogFile file, @Nullable byte[] key)
+      throws GeneralSecurityException {
+    MemorySegment segment = file.segment();
+    if (!hasValidHeader(segment)) {
+      return new FileReport(file.path(), 0, 0, "not an audit log");
+    }
+    Mac mac = null;
+    byte[] chain = new byte[AuditLogFormat.CHAIN_SIZE];
+    if (key != null) {
+      mac = Mac.getInstance(AuditLogFormat.MAC_ALGORITHM);
+      mac.init(new SecretKeySpec(key, AuditLogFormat.MAC_ALGORITHM));
+      MemorySegment.copy(
+          segment, ValueLayout.JAVA_BYTE, AuditLogFormat.SEED_OFFSET, chain, 0, chain.length);
+    }
+    MemorySegment chainSegment = MemorySegment.ofArray(chain);
+    long dropped = 0;
+    String problem = null;
+    long previousSequence = -1;
+    for (long i = 0; i < file.records() && problem == null; i++) {
+      long offset = file.recordOffset(i);
+      if (mac != null) {
+        mac.update(chain);
+        mac.update(segment.asSlice(offset, AuditLogFormat.DATA_SIZE).asByteBuffer());
+        mac.doFinal(chain, 0);
+        long tagOffset = offset + AuditLogFormat.DATA_SIZE;
+        if (MemorySegment.mismatch(
+                segment,
+                tagOffset,
+                tagOffset + AuditLogFormat.TAG_SIZE,
+                chainSegment,
+                0,
+                AuditLogFormat.TAG_SIZE)
+            != -1) {
+          problem = "MAC chain broken at record " + i;
+        }
+      }
+      long sequence = segment.get(LONG, offset + 40);
+      if (previousSequence >= 0 && sequence != previousSequence + 1 && sequence != 0) {
+        problem = "sequence number jumps from " + previousSequence + " to " + sequence;
+      }
+      previousSequence = sequence;
+      if ((segment.get(INT, offset + 32) & AuditLogFormat.TYPE_MASK)
+          == AuditEventType.GAP.getId()) {
+        dropped += segment.get(LONG, offset + 24);
+      }
+    }
+    if (problem == null && segment.byteSize() != file.recordOffset(file.records())) {
+      problem = "ends with an incomplete record";
+    }
+    return new FileReport(file.path(), file.records(), dropped, problem);
+  }
+
+  /**
+   * Checks that each file is seeded with the last tag of the file before it.
+   *
+   * @return The files that are not.
+   */
+  private static List<Path> linkFiles(List<LogFile> files, List<FileReport> reports) {
+    List<Path> unlinked = new ArrayList<>();
+    byte[] expected = new byte[AuditLogFormat.CHAIN_SIZE];
+    byte[] seed = new byte[AuditLogFormat.CHAIN_SIZE];
+    for (int i = 0; i < files.size(); i++) {
+      LogFile file = files.get(i);
+      if (!hasValidHeader(file.segment())) {
+        continue;
+      }
+      MemorySegment.copy(
+          file.segment(), ValueLayout.JAVA_BYTE, AuditLogFormat.SEED_OFFSET, seed, 0, seed.length);
+      // The first file given may continue a file that was not given.
+      if (i > 0 && !Arrays.equals(seed, expected)) {
+        unlinked.add(file.path());
+      }
+      Arrays.fill(expected, (byte) 0);
+      if (file.records() > 0) {
+        MemorySegment.copy(
+            file.segment(),
+            ValueLayout.JAVA_BYTE,
+            file.recordOffset(file.records()) - AuditLogFormat.TAG_SIZE,
+            expected,
+            0,
+            AuditLogFormat.TAG_SIZE);
+      } else {
+        System.arraycopy(seed, 0, expected, 0, seed.length);
+      }
+    }
+    return unlinked;
+  }
+
+  /** Sums up the records of a chunk into one map per shard of players. */
+  private static List<Map<UUID, PlayerFlow>> scan(Chunk chunk) {
+    List<Map<UUID, PlayerFlow>> shards = new ArrayList<>(SHARDS);
+    for (int i = 0; i < SHARDS; i++) {
+      shards.add(new HashMap<>());
+    }
+    MemorySegment segment = chunk.file().segment();
+    for (long i = chunk.start(); i < chunk.end(); i++) {
+      long offset = chunk.file().recordOffset(i);
+      int packedType = segment.get(INT, offset + 32);
+      AuditEventType type = AuditEventType.byId(packedType & AuditLogFormat.TYPE_MASK);
+      AuditSource source = AuditSource.byId(packedType >>> AuditLogFormat.SOURCE_SHIFT);
+      if (type == null || type == AuditEventType.GAP || source == null) {
+        continue;
+      }
+      UUID player = new UUID(segment.get(LONG, offset + 8), segment.get(LONG, offset + 16));
+      shards
+          .get(Math.floorMod(player.hashCode(), SHARDS))
+          .computeIfAbsent(player, uuid -> new PlayerFlow())
+          .add(type, source, segment.get(LONG, offset + 24), segment.get(INT, offset + 36));
+    }
+    return shards;
+  }
+
+  private static Map<UUID, PlayerFlow> mergeShard(
+      List<List<Map<UUID, PlayerFlow>>> scanned, int shard) {
+    Map<UUID, PlayerFlow> merged = new HashMap<>();
+    for (List<Map<UUID, PlayerFlow>> shards : scanned) {
+      shards
+          .get(shard)
+          .forEach(
+              (player, flow) ->
+                  merged.merge(
+                      player,
+                      flow,
+                      (a, b) -> {
+                        a.merge(b);
+                        return a;
+                      }));
+    }
+    return merged;
+  }
+
+  /** Returns the UUID of a player, or the position of a bottler for its automation records. */
+  private static String describe(UUID key) {
+    if (key.getMostSignificantBits() != 0) {
+      return key.toString();
+    }
+    // Unpacks BlockPos.asLong(): 26 bits of x, 26 bits of z and 12 bits of y.
+    long pos = key.getLeastSignificantBits();
+    return String.format(
+        "bottler at %d %d %d", (int) (pos >> 38), (int) (pos << 52 >> 52), (int) (pos << 26 >> 38));
+  }
+
+  private static void report(
+      List<FileReport> reports,
+      List<Path> unlinked,
+      Map<UUID, PlayerFlow> flows,
+      boolean verified,
+      long startTime,
+      PrintStream out) {
+    long records = 0;
+    long dropped = 0;
+    out.println("Files:");
+    for (FileReport report : reports) {
+      records += report.records();
+      dropped += report.droppedRecords();
+      String status = report.problem();
+      if (status == null) {
+        status = verified ? "ok" : "not verified";
+      }
+      if (unlinked.contains(report.path())) {
+        status += ", not seeded with the last tag of the previous file";
+      }
+      out.printf("  %s\t%d records\t%s%n", report.path().getFileName(), report.records(), status);
+    }
+    if (!verified) {
+      out.println("  The MAC chains were not verified, pass --key to verify them.");
+    }
+
+    PlayerFlow total = new PlayerFlow();
+    flows.values().forEach(total::merge);
+    out.println();
+    out.println("Players (net = drunk - debited):");
+    out.println(
+        "  player\tdebited\twithdrawn\tdeposited\tminted\tbottled\tpoured\tdrunk\tdrunk bottles"
+            + "\tnet\tflags");
+    flows.entrySet().stream()
+        .sorted(
+            Comparator.comparing(
+                    (Map.Entry<UUID, PlayerFlow> entry) -> entry.getValue().getFlags().isEmpty())
+                .thenComparing(entry -> -entry.getValue().getNet()))
+        .forEach(
+            entry -> {
+              PlayerFlow flow = entry.getValue();
+              out.printf(
+                  "  %s\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%s%n",
+                  describe(entry.getKey()),
+                  flow.debited,
+                  flow.withdrawn,
+                  flow.deposited,
+                  flow.minted + flow.mintedInTanks,
+                  flow.bottled,
+                  flow.poured,
+                  flow.drunk,
+                  flow.drunkBottles,
+                  flow.getNet(),
+                  flow.getFlags());
+            });
+
+    out.println();
+    out.printf(
+        "%d records, %d dropped, %d players: %d debited, %d minted, %d drunk, in %d ms%n",
+        records,
+        dropped,
+        flows.size(),
+        total.debited,
+        total.minted + total.mintedInTanks,
+        total.drunk,
+        (System.nanoTime() - startTime) / 1_000_000);
+    if (total.isOverdrawn()) {
+      out.println(
+          "More experience was drunk or poured than was bottled while logging; bottles from before"
+              + " the logs or a duplication may explain it.");
+    }
+  }
+}
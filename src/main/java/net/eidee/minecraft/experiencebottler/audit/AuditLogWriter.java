@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Chains records with an HMAC and writes them to log files in a directory, in the layout of {@link
+ * AuditLogFormat}, starting a new file once one reaches the maximum size. It continues the chain
+ * of the last file already in the directory. Used by one thread at a time.
+ */
+final class AuditLogWriter {
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private final Path directory;
+  private final long maxFileSize;
+  private final Mac mac;
+  private final byte[] chain = new byte[AuditLogFormat.CHAIN_SIZE];
+  private final byte[] record = new byte[AuditLogFormat.DATA_SIZE];
+  private final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+  private final ByteBuffer output = ByteBuffer.allocateDirect(AuditLogFormat.RECORD_SIZE * 1024);
+  @Nullable private FileChannel file;
+  private long fileSize;
+
+  AuditLogWriter(Path directory, long maxFileSize, byte[] key)
+      throws IOException, GeneralSecurityException {
+    this.directory = Files.createDirectories(directory);
+    this.maxFileSize = maxFileSize;
+    this.mac = Mac.getInstance(AuditLogFormat.MAC_ALGORITHM);
+    this.mac.init(new SecretKeySpec(key, AuditLogFormat.MAC_ALGORITHM));
+    readLastTag();
+  }
+
+  /** Seeds the chain with the tag of the last record written by the previous run. */
+  private void readLastTag() throws IOException {
+    Path last;
+    try (Stream<Path> files = Files.list(directory)) {
+      last =
+          files
+              .filter(path -> path.getFileName().toString().endsWith(AuditLogFormat.FILE_SUFFIX))
+              .max(Path::compareTo)
+              .orElse(null);
+    }
+    if (last == null) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(last, StandardOpenOption.READ)) {
+      long records = (channel.size() - AuditLogFormat.HEADER_SIZE) / AuditLogFormat.RECORD_SIZE;
+      ByteBuffer tag = ByteBuffer.wrap(chain);
+      if (records > 0) {
+        tag.limit(AuditLogFormat.TAG_SIZE);
+        channel.read(
+            tag,
+            AuditLogFormat.HEADER_SIZE
+                + records * AuditLogFormat.RECORD_SIZE
+                - AuditLogFormat.TAG_SIZE);
+      } else if (channel.size() >= AuditLogFormat.HEADER_SIZE) {
+        // A file without records passes its seed on.
+        channel.read(tag, AuditLogFormat.SEED_OFFSET);
+      }
+    }
+  }
+
+  /** Appends a record in the layout of {@link AuditRingBuffer}. */
+  void write(long[] data, int offset) throws IOException {
+    if (file == null || fileSize + AuditLogFormat.RECORD_SIZE > maxFileSize) {
+      openNextFile();
+    }
+    recordBuffer
+        .clear()
+        .putLong(data[offset])
+        .putLong(data[offset + 1])
+        .putLong(data[offset + 2])
+        .putLong(data[offset + 3])
+        .putLong(data[offset + 4])
+        .putLong(data[offset + 5]);
+    mac.update(chain);
+    mac.update(record);
+    try {
+      mac.doFinal(chain, 0);
+    } catch (ShortBufferException e) {
+      throw new IllegalStateException(e);
+    }
+    if (output.remaining() < AuditLogFormat.RECORD_SIZE) {
+      flush();
+    }
+    output.put(record).put(chain, 0, AuditLogFormat.TAG_SIZE);
+    fileSize += AuditLogFormat.RECORD_SIZE;
+  }
+
+  /** Writes the records appended so far to the file. */
+  void flush() throws IOException {
+    if (file != null && output.position() > 0) {
+      output.flip();
+      while (output.hasRemaining()) {
+        file.write(output);
+      }
+      output.clear();
+    }
+  }
+
+  /** Finishes the current file and starts the next one, seeded with the last tag. */
+  private void openNextFile() throws IOException {
+    flush();
+    close();
+    Arrays.fill(chain, AuditLogFormat.TAG_SIZE, AuditLogFormat.CHAIN_SIZE, (byte) 0);
+    long now = System.currentTimeMillis();
+    Path path =
+        directory.resolve(
+            String.format(
+                "%s%013d%s", AuditLogFormat.FILE_PREFIX, now, AuditLogFormat.FILE_SUFFIX));
+    file = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    output
+        .putLong(AuditLogFormat.MAGIC)
+        .putInt(AuditLogFormat.VERSION)
+        .putInt(AuditLogFormat.RECORD_SIZE)
+        .putLong(now)
+        .put(chain)
+        .putLong(0L);
+    fileSize = AuditLogFormat.HEADER_SIZE;
+  }
+
+  /** Closes the current file. Records appended but not flushed are lost. */
+  void close() {
+    if (file != null) {
+      try {
+        file.force(false);
+        file.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to close the audit log", e);
+      }
+      file = null;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded single-producer, single-consumer queue of audit records. The records are stored in a
+ * preallocated array, so adding one does not allocate, lock or wait. The producer is the server
+ * thread and the consumer is the writer thread.
+ */
+final class AuditRingBuffer {
+  /** The number of longs a record takes in the array. */
+  static final int RECORD_LONGS = 6;
+
+  private final long[] data;
+  private final int capacity;
+  private final int mask;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  // Only used by the producer.
+  private long cachedTail;
+  private long dropped;
+
+  /** A consumer of the records in the array, each starting at {@code offset}. */
+  interface Sink {
+    void accept(long[] data, int offset) throws IOException;
+  }
+
+  AuditRingBuffer(int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("The capacity must be a power of two: " + capacity);
+    }
+    this.data = new long[capacity * RECORD_LONGS];
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Adds a record. If the buffer is full, the record is dropped and counted, and the count is added
+   * as a {@link AuditEventType#GAP} record once there is room again.
+   */
+  void offer(
+      long time,
+      long mostSignificantBits,
+      long leastSignificantBits,
+      long experience,
+      AuditEventType type,
+      AuditSource source,
+      int bottles) {
+    long index = head.getPlain();
+    int needed = dropped > 0 ? 2 : 1;
+    if (index + needed - cachedTail > capacity) {
+      cachedTail = tail.getAcquire();
+      if (index + needed - cachedTail > capacity) {
+        dropped++;
+        return;
+      }
+    }
+    if (dropped > 0) {
+      write(index++, time, 0, 0, dropped, AuditEventType.GAP, AuditSource.PLAYER, 0);
+      dropped = 0;
+    }
+    write(
+        index++,
+        time,
+        mostSignificantBits,
+        leastSignificantBits,
+        experience,
+        type,
+        source,
+        bottles);
+    head.setRelease(index);
+  }
+
+  private void write(
+      long index,
+      long time,
+      long mostSignificantBits,
+      long leastSignificantBits,
+      long experience,
+      AuditEventType type,
+      AuditSource source,
+      int bottles) {
+    int offset = (int) (index & mask) * RECORD_LONGS;
+    data[offset] = time;
+    data[offset + 1] = mostSignificantBits;
+    data[offset + 2] = leastSignificantBits;
+    data[offset + 3] = experience;
+    data[offset + 4] =
+        ((long) AuditLogFormat.packType(type, source) << 32) | (bottles & 0xFFFFFFFFL);
+    data[offset + 5] = index;
+  }
+
+  /**
+   * Passes every record added so far to the sink, in order, and frees their space.
+   *
+   * @return The number of records passed.
+   */
+  int drain(Sink sink) throws IOException {
+    long index = tail.getPlain();
+    long end = head.getAcquire();
+    int drained = 0;
+    try {
+      for (; index < end; index++, drained++) {
+        sink.accept(data, (int) (index & mask) * RECORD_LONGS);
+      }
+    } finally {
+      tail.setRelease(index);
+    }
+    return drained;
+  }
+}
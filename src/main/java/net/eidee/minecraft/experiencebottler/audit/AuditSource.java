@@ -1,7 +1,7 @@
 /*
  * MIT License
  *
- * Copyright (c) 2022 EideeHi
+ * Copyright (c) 2026 EideeHi
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,41 +22,44 @@
  * SOFTWARE.
  */
 
-package net.eidee.minecraft.experiencebottler.screen;
+package net.eidee.minecraft.experiencebottler.audit;
 
-import javax.annotation.ParametersAreNonnullByDefault;
-import net.eidee.minecraft.experiencebottler.annotation.MethodsReturnNonnullByDefault;
-import net.minecraft.world.Container;
-import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.inventory.Slot;
-import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
-@ParametersAreNonnullByDefault
-@MethodsReturnNonnullByDefault
-public class HiddenSlot extends Slot {
-  public HiddenSlot(Container inventory, int index) {
-    super(inventory, index, -32, -32);
-  }
+/** Where the experience of an audit record came from or went to. */
+public enum AuditSource {
+  /** The player's own experience. */
+  PLAYER(0),
+  /** The experience tank of a bottler, used by the player of the record. */
+  TANK(1),
+  /** The player's balance in the experience bank. */
+  BANK(2),
+  /**
+   * The experience tank of a bottler, used by automation. The record holds the position of the
+   * bottler instead of a player.
+   */
+  AUTOMATION(3);
+
+  private static final AuditSource[] BY_ID = new AuditSource[4];
 
-  @Override
-  public ItemStack getItem() {
-    ItemStack stack = super.getItem();
-    container.setChanged();
-    return stack;
+  static {
+    for (AuditSource source : values()) {
+      BY_ID[source.id] = source;
+    }
   }
 
-  @Override
-  public boolean isActive() {
-    return false;
+  private final int id;
+
+  AuditSource(int id) {
+    this.id = id;
   }
 
-  @Override
-  public boolean mayPlace(ItemStack stack) {
-    return false;
+  public int getId() {
+    return id;
   }
 
-  @Override
-  public boolean mayPickup(Player playerEntity) {
-    return false;
+  @Nullable
+  public static AuditSource byId(int id) {
+    return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
   }
 }
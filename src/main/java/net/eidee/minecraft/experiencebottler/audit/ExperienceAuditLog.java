@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.audit;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.storage.LevelResource;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Records every movement of experience caused by the mod in a tamper-evident log, see {@link
+ * AuditLogFormat}.
+ *
+ * <p>The server thread only puts a record into a {@link AuditRingBuffer}. A virtual thread drains
+ * the buffer into an {@link AuditLogWriter}, which chains the records with an HMAC and writes them
+ * to log files in {@code data/experiencebottler/audit} of the world, starting a new file once one
+ * reaches the configured size. The key is kept in {@code config/experiencebottler-audit.key},
+ * outside the world.
+ */
+public final class ExperienceAuditLog {
+  private static final Logger LOGGER = LogUtils.getLogger();
+  private static final int BUFFER_CAPACITY = 1 << 14;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  @Nullable private static ExperienceAuditLog instance;
+
+  private final AuditRingBuffer buffer = new AuditRingBuffer(BUFFER_CAPACITY);
+  private final AuditLogWriter output;
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  private ExperienceAuditLog(Path directory, long maxFileSize, byte[] key)
+      throws IOException, GeneralSecurityException {
+    this.output = new AuditLogWriter(directory, maxFileSize, key);
+    this.writer = Thread.ofVirtual().name("Experience Bottler Audit Writer").start(this::run);
+  }
+
+  /** Starts recording for the server, if enabled in the configuration. */
+  public static void open(MinecraftServer server) {
+    if (!ExperienceBottlerConfig.isAuditEnabled()) {
+      return;
+    }
+    Path directory =
+        server
+            .getWorldPath(LevelResource.ROOT)
+            .resolve("data")
+            .resolve(ExperienceBottlerMod.MOD_ID)
+            .resolve("audit");
+    try {
+      instance =
+          new ExperienceAuditLog(
+              directory,
+              ExperienceBottlerConfig.getAuditMaxFileSizeMiB() * 1024L * 1024L,
+              readOrCreateKey());
+    } catch (IOException | GeneralSecurityException e) {
+      LOGGER.error("Failed to open the audit log in {}", directory, e);
+      instance = null;
+    }
+  }
+
+  /** Writes the remaining records and stops recording. */
+  public static void close() {
+    if (instance != null) {
+      ExperienceAuditLog log = instance;
+      instance = null;
+      log.running = false;
+      LockSupport.unpark(log.writer);
+      try {
+        log.writer.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Records a movement of experience of a server player. Called on the server thread; only puts the
+   * record into the buffer.
+   */
+  public static void record(
+      AuditEventType type, AuditSource source, Player player, long experience, int bottles) {
+    ExperienceAuditLog log = instance;
+    if (log != null && player instanceof ServerPlayer) {
+      UUID uuid = player.getUUID();
+      log.buffer.offer(
+          System.currentTimeMillis(),
+          uuid.getMostSignificantBits(),
+          uuid.getLeastSignificantBits(),
+          experience,
+          type,
+          source,
+          bottles);
+    }
+  }
+
+  /**
+   * Records a movement of experience of a bottler that no player caused, such as bottles taken out
+   * by a hopper. Called on the server thread; only puts the record into the buffer.
+   */
+  public static void recordAutomation(
+      AuditEventType type, BlockPos pos, long experience, int bottles) {
+    ExperienceAuditLog log = instance;
+    if (log != null) {
+      log.buffer.offer(
+          System.currentTimeMillis(),
+          0L,
+          pos.asLong(),
+          experience,
+          type,
+          AuditSource.AUTOMATION,
+          bottles);
+    }
+  }
+
+  private static byte[] readOrCreateKey() throws IOException {
+    Path path =
+        FabricLoader.getInstance()
+            .getConfigDir()
+            .resolve(ExperienceBottlerMod.MOD_ID + "-audit.key");
+    if (Files.exists(path)) {
+      byte[] key = Files.readAllBytes(path);
+      if (key.length == 0) {
+        throw new IOException("The audit key is empty: " + path);
+      }
+      return key;
+    }
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    Files.write(path, key, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    return key;
+  }
+
+  private void run() {
+    try {
+      while (running) {
+        if (drain() == 0) {
+          LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+      }
+      drain();
+    } catch (IOException e) {
+      LOGGER.error("Failed to write the audit log, recording stopped", e);
+    } finally {
+      output.close();
+    }
+  }
+
+  private int drain() throws IOException {
+    int drained = buffer.drain(output::write);
+    output.flush();
+    return drained;
+  }
+}
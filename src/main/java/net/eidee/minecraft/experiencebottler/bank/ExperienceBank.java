@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.bank;
+
+import java.util.UUID;
+
+/**
+ * A server-wide bank that keeps experience points for each player. The storage is chosen by the
+ * configuration, see {@link ExperienceBanks}. Only the server thread uses the bank.
+ */
+public interface ExperienceBank {
+  long getBalance(UUID player);
+
+  void setBalance(UUID player, long balance);
+
+  /**
+   * Adds experience to the balance of the player.
+   *
+   * @return The experience accepted, which is less than requested only if the balance is full.
+   */
+  default long deposit(UUID player, long experience) {
+    long balance = getBalance(player);
+    long accepted = Math.min(Math.max(experience, 0), Long.MAX_VALUE - balance);
+    if (accepted > 0) {
+      setBalance(player, balance + accepted);
+    }
+    return accepted;
+  }
+
+  /**
+   * Removes experience from the balance of the player.
+   *
+   * @return The experience removed, which is less than requested only if the balance runs out.
+   */
+  default long withdraw(UUID player, long experience) {
+    long balance = getBalance(player);
+    long withdrawn = Math.min(Math.max(experience, 0), balance);
+    if (withdrawn > 0) {
+      setBalance(player, balance - withdrawn);
+    }
+    return withdrawn;
+  }
+
+  /** Persists the changes of this tick. Called at the end of each server tick. */
+  void flush();
+
+  void close();
+}
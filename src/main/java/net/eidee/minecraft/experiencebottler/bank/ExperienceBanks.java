@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.bank;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/** Holds the experience bank of the running server. */
+public class ExperienceBanks {
+  private static final Logger LOGGER = LogUtils.getLogger();
+  @Nullable private static ExperienceBank instance;
+
+  private ExperienceBanks() {}
+
+  /** Returns the bank of the running server, or {@code null} if it could not be opened. */
+  @Nullable
+  public static ExperienceBank get() {
+    return instance;
+  }
+
+  /** Opens the bank of the server with the storage chosen by the configuration. */
+  public static void open(MinecraftServer server) {
+    Path directory =
+        server
+            .getWorldPath(LevelResource.ROOT)
+            .resolve("data")
+            .resolve(ExperienceBottlerMod.MOD_ID);
+    try {
+      instance =
+          ExperienceBottlerConfig.isBankMemoryMapped()
+              ? new MappedExperienceBank(directory)
+              : new JournalExperienceBank(directory);
+    } catch (IOException e) {
+      LOGGER.error("Failed to open the experience bank in {}", directory, e);
+      instance = null;
+    }
+  }
+
+  public static void flush() {
+    if (instance != null) {
+      instance.flush();
+    }
+  }
+
+  public static void close() {
+    if (instance != null) {
+      ExperienceBank bank = instance;
+      instance = null;
+      bank.close();
+    }
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.eidee.minecraft.experiencebottler.bank;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * An experience bank whose balances are held in memory.
+ *
+ * <p>Every change is appended to a journal file as a fixed-size record holding the new balance.
+ * Journals are numbered by generation. Once the current journal holds more records than the bank
+ * has accounts, the bank moves on to a new generation and a background thread writes a copy of the
+ * balances to a snapshot file, which then replaces the journals it covers. So neither a save nor a
+ * compaction writes the whole bank on the server thread, and after a crash the journals newer than
+ * the last snapshot are replayed over it.
+ */
+final class JournalExperienceBank implements ExperienceBank {
+  private static final Logger LOGGER = LogUtils.getLogger();
+  private static final int SNAPSHOT_MAGIC = 0x58504232;
+  private static final int RECORD_SIZE = 24;
+  private static final int MIN_COMPACTION_RECORDS = 4096;
+  private static final String JOURNAL_PREFIX = "bank.";
+  private static final String JOURNAL_SUFFIX = ".journal";
+
+  private final Path directory;
+  private final Path snapshotPath;
+  private final Object2LongOpenHashMap<UUID> balances = new Object2LongOpenHashMap<>();
+  private final ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 1024);
+  private FileChannel journal;
+  private long generation;
+  private long journalRecords;
+  private boolean journalLost;
+  @Nullable private Thread compaction;
+  private volatile boolean compactionFailed;
+
+  JournalExperienceBank(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    this.directory = directory;
+    snapshotPath = directory.resolve("bank.dat");
+    long covered = readSnapshot();
+    generation = covered;
+    for (long journalGeneration : listJournals(directory)) {
+      if (journalGeneration < covered) {
+        // Left behind by a compaction that stopped before deleting it.
+        Files.delete(journalPath(directory, journalGeneration));
+      } else {
+        replayJournal(journalPath(directory, journalGeneration));
+        generation = journalGeneration + 1;
+      }
+    }
+    // Always start a new journal, so that records never follow a record cut off by a crash.
+    journal = openJournal(generation);
+  }
+
+  /** Returns the journal file of the given generation. */
+  static Path journalPath(Path directory, long generation) {
+    return directory.resolve(JOURNAL_PREFIX + generation + JOURNAL_SUFFIX);
+  }
+
+  @Override
+  public long getBalance(UUID player) {
+    return balances.getLong(player);
+  }
+
+  @Override
+  public void setBalance(UUID player, long balance) {
+    if (balance == 0) {
+      balances.removeLong(player);
+    } else {
+      balances.put(player, balance);
+    }
+    if (!pending.hasRemaining()) {
+      flush();
+    }
+    pending
+        .putLong(player.getMostSignificantBits())
+        .putLong(player.getLeastSignificantBits())
+        .putLong(balance);
+  }
+
+  /**
+   * Appends the pending records to the journal, and starts a compaction once the journal is large
+   * enough. If the journal could not be written, the next compaction writes the balances held in
+   * memory instead.
+   */
+  @Override
+  public void flush() {
+    writePending();
+    if (journalLost
+        || compactionFailed
+        || journalRecords > Math.max(MIN_COMPACTION_RECORDS, balances.size())) {
+      startCompaction();
+    }
+  }
+
+  /** Waits for a running compaction, then folds every journal into the snapshot. */
+  @Override
+  public void close() {
+    writePending();
+    awaitCompaction();
+    try {
+      journal.close();
+    } catch (IOException e) {
+      LOGGER.warn("Failed to close {}", journalPath(directory, generation), e);
+    }
+    try {
+      writeSnapshot(balances, generation + 1);
+    } catch (IOException e) {
+      LOGGER.error("Failed to write {}", snapshotPath, e);
+    }
+  }
+
+  /** Waits until the running compaction, if any, has finished. */
+  void awaitCompaction() {
+    if (compaction != null) {
+      try {
+        compaction.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      compaction = null;
+    }
+  }
+
+  private void writePending() {
+    if (pending.position() > 0) {
+      pending.flip();
+      long records = pending.remaining() / RECORD_SIZE;
+      try {
+        while (pending.hasRemaining()) {
+          journal.write(pending);
+        }
+        journalRecords += records;
+      } catch (IOException e) {
+        LOGGER.error(
+            "Failed to write {}, it is rebuilt on the next compaction",
+            journalPath(directory, generation),
+            e);
+        journalLost = true;
+      }
+      pending.clear();
+    }
+  }
+
+  /**
+   * Moves on to a new journal and writes a copy of the balances to the snapshot in the background.
+   * The copy includes every record of the previous journals, including any that were lost.
+   */
+  private void startCompaction() {
+    if (compaction != null && compaction.isAlive()) {
+      return;
+    }
+    long covered = generation + 1;
+    try {
+      FileChannel next = openJournal(covered);
+      journal.close();
+      journal = next;
+    } catch (IOException e) {
+      LOGGER.error("Failed to start {}", journalPath(directory, covered), e);
+      return;
+    }
+    generation = covered;
+    journalRecords = 0;
+    journalLost = false;
+    compactionFailed = false;
+    Object2LongOpenHashMap<UUID> copy = new Object2LongOpenHashMap<>(balances);
+    compaction =
+        Thread.ofVirtual()
+            .name("Experience Bank Compaction")
+            .start(
+                () -> {
+                  try {
+                    writeSnapshot(copy, covered);
+                  } catch (IOException e) {
+                    LOGGER.error("Failed to write {}", snapshotPath, e);
+                    compactionFailed = true;
+                  }
+                });
+  }
+
+  /**
+   * Writes the balances to a new snapshot that replaces the journals older than {@code covered},
+   * then deletes those journals. Does not touch the state of the bank, so it can run on any thread.
+   */
+  private void writeSnapshot(Object2LongOpenHashMap<UUID> balances, long covered)
+      throws IOException {
+    Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      output.writeInt(SNAPSHOT_MAGIC);
+      output.writeLong(covered);
+      output.writeInt(balances.size());
+      for (Object2LongMap.Entry<UUID> entry : Object2LongMaps.fastIterable(balances)) {
+        output.writeLong(entry.getKey().getMostSignificantBits());
+        output.writeLong(entry.getKey().getLeastSignificantBits());
+        output.writeLong(entry.getLongValue());
+      }
+      output.flush();
+      channel.force(true);
+    }
+    Files.move(
+        temporary,
+        snapshotPath,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    // The records are absolute balances, so replaying a journal that could not be deleted over the
+    // new snapshot is harmless.
+    for (long journalGeneration : listJournals(directory)) {
+      if (journalGeneration < covered) {
+        Files.deleteIfExists(journalPath(directory, journalGeneration));
+      }
+    }
+  }
+
+  private FileChannel openJournal(long generation) throws IOException {
+    return FileChannel.open(
+        journalPath(directory, generation),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /** Returns the generations of the journals in the directory in ascending order. */
+  private static long[] listJournals(Path directory) throws IOException {
+    LongArrayList generations = new LongArrayList();
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        try {
+          generations.add(
+              Long.parseLong(
+                  name.substring(
+                      JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          LOGGER.warn("Ignoring {}, which is not a journal of the experience bank", path);
+        }
+      }
+    }
+    generations.sort(null);
+    return generations.toLongArray();
+  }
+
+  /** Reads the snapshot and returns the generation of the oldest journal it does not cover. */
+  private long readSnapshot() throws IOException {
+    if (!Files.exists(snapshotPath)) {
+      return 0;
+    }
+    try (InputStream stream = Files.newInputStream(snapshotPath)) {
+      DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+      if (input.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not an experience bank snapshot: " + snapshotPath);
+      }
+      long covered = input.readLong();
+      int size = input.readInt();
+      balances.ensureCapacity(size);
+      for (int i = 0; i < size; i++) {
+        UUID player = new UUID(input.readLong(), input.readLong());
+        long balance = input.readLong();
+        if (balance > 0) {
+          balances.put(player, balance);
+        }
+      }
+      return covered;
+    }
+  }
+
+  /**
+   * Applies the records of a journal. A record cut off by a crash is dropped; new records always go
+   * to a new journal, so it is never followed by another record.
+   */
+  private void replayJournal(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long complete = size - size % RECORD_SIZE;
+      if (complete != size) {
+        LOGGER.warn("Dropping an incomplete record at the end of {}", path);
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+      while (channel.position() < complete) {
+        buffer.clear();
+        if (channel.read(buffer) < 0) {
+          break;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= RECORD_SIZE) {
+          UUID player = new UUID(buffer.getLong(), buffer.getLong());
+          long balance = buffer.getLong();
+          if (balance > 0) {
+            balances.put(player, balance);
+          } else {
+            balances.removeLong(player);
+          }
+        }
+        // Keep a record split across two reads for the next read.
+        channel.position(channel.position() - buffer.remaining());
+      }
+    }
+  }
+}
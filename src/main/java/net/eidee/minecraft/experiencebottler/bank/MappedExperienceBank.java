@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.bank;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import org.slf4j.Logger;
+
+/**
+ * An experience bank whose accounts are fixed-width slots of a hash table in a memory-mapped file.
+ *
+ * <p>Opening the bank only maps the file, and the balances are read and written in place, so
+ * nothing is deserialized at startup and nothing is written on save: the operating system writes
+ * the changed pages back on its own. Looking up an account does not allocate. Accounts are never
+ * removed, an emptied account keeps its slot with a balance of 0.
+ */
+final class MappedExperienceBank implements ExperienceBank {
+  private static final Logger LOGGER = LogUtils.getLogger();
+  private static final long MAGIC = 0x5850424d41503031L;
+  private static final long HEADER_SIZE = 64;
+  private static final long SLOT_SIZE = 32;
+  private static final long CAPACITY_OFFSET = 8;
+  private static final long SIZE_OFFSET = 16;
+  private static final long MOST_SIGNIFICANT_BITS_OFFSET = 0;
+  private static final long LEAST_SIGNIFICANT_BITS_OFFSET = 8;
+  private static final long BALANCE_OFFSET = 16;
+  private static final long USED_OFFSET = 24;
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  // Big-endian like the other files of the bank, so the file does not depend on the host.
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG.withOrder(ByteOrder.BIG_ENDIAN);
+
+  private final Path path;
+  private Arena arena;
+  private MemorySegment segment;
+  private int capacity;
+  private int size;
+
+  MappedExperienceBank(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    path = directory.resolve("bank.slots");
+    if (!Files.exists(path)) {
+      Path temporary = getTemporaryPath();
+      Arena created = Arena.ofShared();
+      try {
+        create(temporary, INITIAL_CAPACITY, created).force();
+      } finally {
+        created.close();
+      }
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+    map();
+  }
+
+  /** Creates a file for an empty table with the given capacity and maps it. */
+  private static MemorySegment create(Path file, int capacity, Arena arena) throws IOException {
+    long fileSize = HEADER_SIZE + capacity * SLOT_SIZE;
+    MemorySegment segment;
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      // Writing the last byte sizes the file, the slots in between read as zeros.
+      channel.write(ByteBuffer.allocate(1), fileSize - 1);
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, arena);
+    }
+    segment.set(LONG, 0, MAGIC);
+    segment.set(LONG, CAPACITY_OFFSET, capacity);
+    segment.set(LONG, SIZE_OFFSET, 0);
+    return segment;
+  }
+
+  private void map() throws IOException {
+    Arena mapped = Arena.ofShared();
+    try (FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_SIZE) {
+        throw new IOException("Not an experience bank: " + path);
+      }
+      MemorySegment table = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, mapped);
+      long tableCapacity = table.get(LONG, CAPACITY_OFFSET);
+      if (table.get(LONG, 0) != MAGIC
+          || Long.bitCount(tableCapacity) != 1
+          || tableCapacity > 1 << 30
+          || fileSize != HEADER_SIZE + tableCapacity * SLOT_SIZE) {
+        throw new IOException("Not an experience bank: " + path);
+      }
+      arena = mapped;
+      segment = table;
+      capacity = (int) tableCapacity;
+      size = (int) table.get(LONG, SIZE_OFFSET);
+    } catch (IOException | RuntimeException e) {
+      mapped.close();
+      throw e;
+    }
+  }
+
+  private Path getTemporaryPath() {
+    return path.resolveSibling(path.getFileName() + ".tmp");
+  }
+
+  /**
+   * Returns the offset of the slot of the account, or the negated offset of the empty slot where
+   * it belongs if it does not exist.
+   */
+  private static long findSlot(MemorySegment segment, int capacity, long msb, long lsb) {
+    int mask = capacity - 1;
+    int index = (int) HashCommon.mix(msb ^ lsb) & mask;
+    while (true) {
+      long offset = HEADER_SIZE + index * SLOT_SIZE;
+      if (segment.get(LONG, offset + USED_OFFSET) == 0) {
+        return -offset;
+      }
+      if (segment.get(LONG, offset + MOST_SIGNIFICANT_BITS_OFFSET) == msb
+          && segment.get(LONG, offset + LEAST_SIGNIFICANT_BITS_OFFSET) == lsb) {
+        return offset;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private static void claimSlot(MemorySegment segment, long offset, long msb, long lsb) {
+    segment.set(LONG, offset + MOST_SIGNIFICANT_BITS_OFFSET, msb);
+    segment.set(LONG, offset + LEAST_SIGNIFICANT_BITS_OFFSET, lsb);
+    segment.set(LONG, offset + USED_OFFSET, 1);
+  }
+
+  @Override
+  public long getBalance(UUID player) {
+    long offset =
+        findSlot(
+            segment, capacity, player.getMostSignificantBits(), player.getLeastSignificantBits());
+    return offset > 0 ? segment.get(LONG, offset + BALANCE_OFFSET) : 0;
+  }
+
+  @Override
+  public void setBalance(UUID player, long balance) {
+    long msb = player.getMostSignificantBits();
+    long lsb = player.getLeastSignificantBits();
+    long offset = findSlot(segment, capacity, msb, lsb);
+    if (offset < 0) {
+      if (balance == 0) {
+        return;
+      }
+      if (size + 1 > capacity - (capacity >>> 2)) {
+        grow();
+        offset = findSlot(segment, capacity, msb, lsb);
+      }
+      offset = -offset;
+      claimSlot(segment, offset, msb, lsb);
+      segment.set(LONG, SIZE_OFFSET, ++size);
+    }
+    segment.set(LONG, offset + BALANCE_OFFSET, balance);
+  }
+
+  /**
+   * Moves the accounts into a table of twice the capacity. The new table is written to a separate
+   * file that replaces the current one once complete. If that fails, the current table is kept as
+   * long as it has a free slot left.
+   */
+  private void grow() {
+    int newCapacity = capacity << 1;
+    Path temporary = getTemporaryPath();
+    try {
+      Arena created = Arena.ofShared();
+      try {
+        MemorySegment table = create(temporary, newCapacity, created);
+        for (int i = 0; i < capacity; i++) {
+          long offset = HEADER_SIZE + i * SLOT_SIZE;
+          if (segment.get(LONG, offset + USED_OFFSET) != 0) {
+            long msb = segment.get(LONG, offset + MOST_SIGNIFICANT_BITS_OFFSET);
+            long lsb = segment.get(LONG, offset + LEAST_SIGNIFICANT_BITS_OFFSET);
+            long newOffset = -findSlot(table, newCapacity, msb, lsb);
+            claimSlot(table, newOffset, msb, lsb);
+            table.set(
+                LONG, newOffset + BALANCE_OFFSET, segment.get(LONG, offset + BALANCE_OFFSET));
+          }
+        }
+        table.set(LONG, SIZE_OFFSET, size);
+        table.force();
+      } finally {
+        created.close();
+      }
+      // Both files are unmapped while the new one replaces the old one.
+      segment.force();
+      arena.close();
+      Files.move(
+          temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      map();
+    } catch (IOException e) {
+      if (!arena.scope().isAlive()) {
+        // Map whichever table the file holds now, the old one unless the move went through.
+        try {
+          map();
+        } catch (IOException reopenException) {
+          e.addSuppressed(reopenException);
+          throw new UncheckedIOException("Failed to reopen " + path, e);
+        }
+      }
+      if (size + 1 >= capacity) {
+        throw new UncheckedIOException("Failed to grow " + path, e);
+      }
+      LOGGER.error("Failed to grow {}, continuing with {} slots", path, capacity, e);
+    }
+  }
+
+  /** The mapped pages are written back by the operating system, so there is nothing to do. */
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() {
+    segment.force();
+    arena.close();
+  }
+}
@@ -25,36 +25,50 @@
 package net.eidee.minecraft.experiencebottler.block;
 
 import com.mojang.serialization.MapCodec;
+import net.eidee.minecraft.experiencebottler.audit.AuditEventType;
+import net.eidee.minecraft.experiencebottler.audit.AuditSource;
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
+import net.eidee.minecraft.experiencebottler.block.entity.ExperienceBottlerBlockEntity;
+import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
+import net.eidee.minecraft.experiencebottler.item.Items;
 import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
 import net.eidee.minecraft.experiencebottler.screen.ExperienceSource;
 import net.eidee.minecraft.experiencebottler.stat.Stats;
-import net.fabricmc.fabric.api.menu.v1.ExtendedMenuProvider;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.network.chat.Component;
-import net.minecraft.util.Unit;
+import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.MenuProvider;
+import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.BlockPlaceContext;
 import net.minecraft.world.inventory.ContainerLevelAccess;
 import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.HorizontalDirectionalBlock;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.StateDefinition.Builder;
 import net.minecraft.world.level.pathfinder.PathComputationType;
+import net.minecraft.world.level.redstone.Orientation;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.Shapes;
 import net.minecraft.world.phys.shapes.VoxelShape;
 import org.jetbrains.annotations.Nullable;
 
-/** The block for bottling the player's experience points. */
-public class ExperienceBottlerBlock extends HorizontalDirectionalBlock {
-  private static final Component CONTAINER_TITLE;
+/**
+ * The block for bottling the player's experience points. It also holds an experience tank: bottled
+ * experience used on it is poured into the tank, glass bottles used on it are buffered and filled
+ * from the tank on their own, and opening it while sneaking bottles from the tank. The menu opened
+ * on the player can be switched to the player's balance in the experience bank. While powered by
+ * redstone, it absorbs the experience orbs around it into the tank.
+ */
+public class ExperienceBottlerBlock extends HorizontalDirectionalBlock implements EntityBlock {
   private static final VoxelShape TOP_SHAPE;
   private static final VoxelShape BOTTOM_SHAPE;
   private static final VoxelShape NORTH_SHAPE;
@@ -64,7 +78,6 @@ public class ExperienceBottlerBlock extends HorizontalDirectionalBlock {
   private static final MapCodec<ExperienceBottlerBlock> CODEC;
 
   static {
-    CONTAINER_TITLE = Component.translatable("container.experiencebottler.experience_bottler");
     TOP_SHAPE = Block.box(0, 13, 0, 16, 16, 16);
     BOTTOM_SHAPE = Block.box(0, 0, 0, 16, 2, 16);
     VoxelShape baseShape = Shapes.or(TOP_SHAPE, BOTTOM_SHAPE);
@@ -140,27 +153,15 @@ public class ExperienceBottlerBlock extends HorizontalDirectionalBlock {
 
   @Nullable
   @Override
-  protected MenuProvider getMenuProvider(BlockState state, Level world, BlockPos pos) {
-    return new ExtendedMenuProvider<>() {
-      @Override
-      public Unit getScreenOpeningData(net.minecraft.server.level.ServerPlayer player) {
-        return Unit.INSTANCE;
-      }
-
-      @Override
-      public Component getDisplayName() {
-        return CONTAINER_TITLE;
-      }
+  public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+    return new ExperienceBottlerBlockEntity(pos, state);
+  }
 
-      @Override
-      public ExperienceBottlerScreenHandler createMenu(
-          int syncId, net.minecraft.world.entity.player.Inventory inventory, Player player) {
-        return new ExperienceBottlerScreenHandler(
-            syncId,
-            inventory,
-            ExperienceSource.fromPlayer(player, ContainerLevelAccess.create(world, pos)));
-      }
-    };
+  @Nullable
+  @Override
+  protected MenuProvider getMenuProvider(BlockState state, Level world, BlockPos pos) {
+    return ExperienceBottlerScreenHandler.createMenuProvider(
+        player -> ExperienceSource.fromPlayer(player, ContainerLevelAccess.create(world, pos)));
   }
 
   @Override
@@ -169,8 +170,98 @@ public class ExperienceBottlerBlock extends HorizontalDirectionalBlock {
     if (world.isClientSide()) {
       return InteractionResult.SUCCESS;
     }
-    player.openMenu(state.getMenuProvider(world, pos));
+    if (player.isSecondaryUseActive()
+        && world.getBlockEntity(pos) instanceof ExperienceBottlerBlockEntity tank) {
+      player.openMenu(
+          ExperienceBottlerScreenHandler.createMenuProvider(
+              user -> ExperienceSource.fromBlockEntity(tank)));
+    } else {
+      player.openMenu(state.getMenuProvider(world, pos));
+    }
     player.awardStat(Stats.INTERACT_WITH_EXPERIENCE_BOTTLER);
     return InteractionResult.CONSUME;
   }
+
+  @Override
+  protected InteractionResult useItemOn(
+      ItemStack stack,
+      BlockState state,
+      Level world,
+      BlockPos pos,
+      Player player,
+      InteractionHand hand,
+      BlockHitResult hit) {
+    boolean bottledExperience = stack.is(Items.BOTTLED_EXPERIENCE);
+    // The tank only counts glass bottles, so bottles with components would lose them.
+    boolean glassBottle =
+        stack.is(net.minecraft.world.item.Items.GLASS_BOTTLE) && stack.isComponentsPatchEmpty();
+    if (!bottledExperience && !glassBottle) {
+      return InteractionResult.TRY_WITH_EMPTY_HAND;
+    }
+    if (world.isClientSide()) {
+      return InteractionResult.SUCCESS;
+    }
+    if (!(world.getBlockEntity(pos) instanceof ExperienceBottlerBlockEntity tank)) {
+      return InteractionResult.TRY_WITH_EMPTY_HAND;
+    }
+
+    int count = stack.getCount();
+    if (bottledExperience) {
+      // Pour the whole stack into the tank.
+      long poured =
+          tank.addExperience((long) BottledExperienceComponent.getExperienceValue(stack) * count);
+      if (poured > 0) {
+        ExperienceAuditLog.record(
+            player.isCreative() ? AuditEventType.CREATIVE_POUR : AuditEventType.POUR,
+            AuditSource.TANK,
+            player,
+            poured,
+            count);
+      }
+      if (!player.isCreative()) {
+        stack.shrink(count);
+        ItemStack glassBottles = new ItemStack(net.minecraft.world.item.Items.GLASS_BOTTLE, count);
+        if (!player.getInventory().add(glassBottles)) {
+          player.drop(glassBottles, false);
+        }
+      }
+    } else {
+      int inserted = tank.insertGlassBottles(count);
+      if (!player.isCreative()) {
+        stack.shrink(inserted);
+      }
+    }
+    return InteractionResult.CONSUME;
+  }
+
+  @Override
+  public void setPlacedBy(
+      Level world, BlockPos pos, BlockState state, @Nullable LivingEntity placer, ItemStack stack) {
+    super.setPlacedBy(world, pos, state, placer, stack);
+    updateOrbAbsorption(world, pos);
+  }
+
+  @Override
+  protected void neighborChanged(
+      BlockState state,
+      Level world,
+      BlockPos pos,
+      Block neighborBlock,
+      @Nullable Orientation orientation,
+      boolean movedByPiston) {
+    updateOrbAbsorption(world, pos);
+    // A storage may have been placed below, so try to push the waiting bottles into it.
+    if (!world.isClientSide()
+        && world.getBlockEntity(pos) instanceof ExperienceBottlerBlockEntity tank) {
+      tank.process();
+    }
+  }
+
+  /** A powered bottler absorbs the experience orbs around it into its tank. */
+  private static void updateOrbAbsorption(Level world, BlockPos pos) {
+    if (!world.isClientSide()
+        && world.getBlockEntity(pos) instanceof ExperienceBottlerBlockEntity tank) {
+      tank.setAbsorbingOrbs(world.hasNeighborSignal(pos));
+    }
+  }
 }
@@ -0,0 +1,403 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.block.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.eidee.minecraft.experiencebottler.annotation.MethodsReturnNonnullByDefault;
+import net.eidee.minecraft.experiencebottler.audit.AuditEventType;
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
+import net.eidee.minecraft.experiencebottler.component.DataComponentTypes;
+import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.eidee.minecraft.experiencebottler.item.Items;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.component.DataComponentGetter;
+import net.minecraft.core.component.DataComponentMap;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.Containers;
+import net.minecraft.world.entity.ExperienceOrb;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.storage.ValueInput;
+import net.minecraft.world.level.storage.ValueOutput;
+import net.minecraft.world.phys.AABB;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The block entity of the Experience Bottler. It holds an experience tank that players can pour
+ * bottled experience into, and a buffer of glass bottles that it fills from the tank on its own.
+ * Automation can insert glass bottles and extract filled bottles through {@link #getItemStorage()}.
+ *
+ * <p>The block entity is the one state shared by every player viewing the bottler. Menus register
+ * themselves as viewers and are told when it changes, instead of each polling it on their own.
+ */
+@ParametersAreNonnullByDefault
+@MethodsReturnNonnullByDefault
+public class ExperienceBottlerBlockEntity extends BlockEntity {
+  public static final int MAX_GLASS_BOTTLES = 64;
+
+  private final AutomationStorage itemStorage = new AutomationStorage();
+  private final List<Runnable> viewers = new ArrayList<>();
+  private long storedExperience;
+  private int bottlingExperience;
+  private int glassBottles;
+  private boolean absorbingOrbs;
+  @Nullable private ItemVariant bottleVariant;
+
+  public ExperienceBottlerBlockEntity(BlockPos pos, BlockState state) {
+    super(BlockEntityTypes.EXPERIENCE_BOTTLER, pos, state);
+  }
+
+  public long getStoredExperience() {
+    return storedExperience;
+  }
+
+  /**
+   * Pours experience into the tank.
+   *
+   * @return The experience accepted, which is less than requested only if the tank is full.
+   */
+  public long addExperience(long experience) {
+    long accepted = Math.min(Math.max(experience, 0), Long.MAX_VALUE - storedExperience);
+    if (accepted > 0) {
+      storedExperience += accepted;
+      setChanged();
+      process();
+    }
+    return accepted;
+  }
+
+  public void removeExperience(long experience) {
+    if (experience > 0) {
+      storedExperience = Math.max(storedExperience - experience, 0);
+      setChanged();
+    }
+  }
+
+  /** Returns the experience of each bottle the bottler fills on its own. 0 means it does not. */
+  public int getBottlingExperience() {
+    return bottlingExperience;
+  }
+
+  public void setBottlingExperience(int bottlingExperience) {
+    if (this.bottlingExperience != bottlingExperience) {
+      this.bottlingExperience = Math.max(bottlingExperience, 0);
+      bottleVariant = null;
+      setChanged();
+      process();
+    }
+  }
+
+  public int getGlassBottles() {
+    return glassBottles;
+  }
+
+  /**
+   * Adds glass bottles to the buffer.
+   *
+   * @return The number of glass bottles accepted.
+   */
+  public int insertGlassBottles(int count) {
+    int accepted = Math.min(Math.max(count, 0), MAX_GLASS_BOTTLES - glassBottles);
+    if (accepted > 0) {
+      glassBottles += accepted;
+      setChanged();
+      process();
+    }
+    return accepted;
+  }
+
+  public boolean isAbsorbingOrbs() {
+    return absorbingOrbs;
+  }
+
+  /**
+   * Starts or stops absorbing the experience orbs around the bottler into the tank. When it starts,
+   * the orbs already around it are absorbed once; after that only orbs added to the level are.
+   */
+  public void setAbsorbingOrbs(boolean absorbingOrbs) {
+    if (this.absorbingOrbs == absorbingOrbs) {
+      return;
+    }
+    this.absorbingOrbs = absorbingOrbs;
+    setChanged();
+    if (!(level instanceof ServerLevel serverLevel)) {
+      return;
+    }
+    if (absorbingOrbs) {
+      OrbAbsorptionIndex.add(this);
+      AABB area =
+          new AABB(worldPosition).inflate(ExperienceBottlerConfig.getOrbAbsorptionRadius());
+      serverLevel
+          .getEntitiesOfClass(ExperienceOrb.class, area)
+          .forEach(OrbAbsorptionIndex::queue);
+    } else {
+      OrbAbsorptionIndex.remove(this);
+    }
+  }
+
+  /** Registers a callback run whenever the state of the bottler changes. */
+  public void addViewer(Runnable viewer) {
+    viewers.add(viewer);
+  }
+
+  public void removeViewer(Runnable viewer) {
+    viewers.remove(viewer);
+  }
+
+  /** Returns the item storage that accepts glass bottles and provides filled bottles. */
+  public Storage<ItemVariant> getItemStorage() {
+    return itemStorage;
+  }
+
+  /** Returns how many bottles can be filled right now. */
+  private int getAvailableBottles() {
+    if (bottlingExperience <= 0) {
+      return 0;
+    }
+    return (int) Math.min(glassBottles, storedExperience / bottlingExperience);
+  }
+
+  private ItemVariant getBottleVariant() {
+    if (bottleVariant == null) {
+      ItemStack bottledExperience = new ItemStack(Items.BOTTLED_EXPERIENCE);
+      BottledExperienceComponent.setExperienceValue(bottledExperience, bottlingExperience);
+      bottleVariant = ItemVariant.of(bottledExperience);
+    }
+    return bottleVariant;
+  }
+
+  /**
+   * Fills the buffered glass bottles from the tank and pushes them into the storage below, all of
+   * them in a single transfer.
+   *
+   * <p>This is called when the tank, the glass bottles, the bottling experience or a neighbouring
+   * block change, never on a timer, so an idle bottler costs nothing. Bottles the storage below
+   * cannot take wait in the buffer until one of those happens again.
+   */
+  public void process() {
+    if (!(level instanceof ServerLevel serverLevel)) {
+      return;
+    }
+    int bottles = getAvailableBottles();
+    if (bottles <= 0) {
+      return;
+    }
+    Storage<ItemVariant> target =
+        ItemStorage.SIDED.find(serverLevel, worldPosition.below(), Direction.UP);
+    if (target == null) {
+      return;
+    }
+
+    long moved;
+    try (Transaction transaction = Transaction.openOuter()) {
+      moved = target.insert(getBottleVariant(), bottles, transaction);
+      transaction.commit();
+    }
+    if (moved > 0) {
+      glassBottles -= (int) moved;
+      storedExperience -= moved * bottlingExperience;
+      ExperienceAuditLog.recordAutomation(
+          AuditEventType.BOTTLE, worldPosition, moved * bottlingExperience, (int) moved);
+      setChanged();
+    }
+  }
+
+  private record Snapshot(long storedExperience, int glassBottles, int extractedBottles) {}
+
+  /**
+   * Inserts glass bottles into the buffer and extracts filled bottles, which are made from the
+   * buffer and the tank as they are extracted. Any number of items moves in one call, so a pipe
+   * can move a whole stack in one transfer.
+   */
+  private final class AutomationStorage extends SnapshotParticipant<Snapshot>
+      implements Storage<ItemVariant>, StorageView<ItemVariant> {
+    // The bottles extracted in the open transaction, recorded in the audit log once it commits.
+    private int extractedBottles;
+
+    @Override
+    public long insert(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+      // The buffer is only a count, so bottles with components would lose them.
+      if (!resource.isOf(net.minecraft.world.item.Items.GLASS_BOTTLE)
+          || resource.hasComponents()) {
+        return 0;
+      }
+      int inserted = (int) Math.min(maxAmount, MAX_GLASS_BOTTLES - glassBottles);
+      if (inserted > 0) {
+        updateSnapshots(transaction);
+        glassBottles += inserted;
+      }
+      return inserted;
+    }
+
+    @Override
+    public long extract(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+      if (bottlingExperience <= 0 || !resource.equals(getBottleVariant())) {
+        return 0;
+      }
+      int extracted = (int) Math.min(maxAmount, getAvailableBottles());
+      if (extracted > 0) {
+        updateSnapshots(transaction);
+        glassBottles -= extracted;
+        storedExperience -= (long) extracted * bottlingExperience;
+        extractedBottles += extracted;
+      }
+      return extracted;
+    }
+
+    @Override
+    public Iterator<StorageView<ItemVariant>> iterator() {
+      return Collections.singletonList((StorageView<ItemVariant>) this).iterator();
+    }
+
+    @Override
+    public boolean isResourceBlank() {
+      return bottlingExperience <= 0;
+    }
+
+    @Override
+    public ItemVariant getResource() {
+      return bottlingExperience > 0 ? getBottleVariant() : ItemVariant.blank();
+    }
+
+    @Override
+    public long getAmount() {
+      return getAvailableBottles();
+    }
+
+    @Override
+    public long getCapacity() {
+      return MAX_GLASS_BOTTLES;
+    }
+
+    @Override
+    protected Snapshot createSnapshot() {
+      return new Snapshot(storedExperience, glassBottles, extractedBottles);
+    }
+
+    @Override
+    protected void readSnapshot(Snapshot snapshot) {
+      storedExperience = snapshot.storedExperience();
+      glassBottles = snapshot.glassBottles();
+      extractedBottles = snapshot.extractedBottles();
+    }
+
+    @Override
+    protected void onFinalCommit() {
+      if (extractedBottles > 0) {
+        ExperienceAuditLog.recordAutomation(
+            AuditEventType.BOTTLE,
+            worldPosition,
+            (long) extractedBottles * bottlingExperience,
+            extractedBottles);
+        extractedBottles = 0;
+      }
+      setChanged();
+      process();
+    }
+  }
+
+  @Override
+  public void setChanged() {
+    super.setChanged();
+    for (int i = 0; i < viewers.size(); i++) {
+      viewers.get(i).run();
+    }
+  }
+
+  @Override
+  protected void loadAdditional(ValueInput input) {
+    super.loadAdditional(input);
+    storedExperience = Math.max(input.getLongOr("Experience", 0L), 0L);
+    bottlingExperience = Math.max(input.getIntOr("BottlingExperience", 0), 0);
+    glassBottles = Mth.clamp(input.getIntOr("GlassBottles", 0), 0, MAX_GLASS_BOTTLES);
+    absorbingOrbs = input.getBooleanOr("AbsorbingOrbs", false);
+  }
+
+  @Override
+  protected void saveAdditional(ValueOutput output) {
+    super.saveAdditional(output);
+    output.putLong("Experience", storedExperience);
+    output.putInt("BottlingExperience", bottlingExperience);
+    output.putInt("GlassBottles", glassBottles);
+    output.putBoolean("AbsorbingOrbs", absorbingOrbs);
+  }
+
+  @Override
+  protected void applyImplicitComponents(DataComponentGetter components) {
+    super.applyImplicitComponents(components);
+    storedExperience =
+        Math.max(components.getOrDefault(DataComponentTypes.STORED_EXPERIENCE, 0L), 0L);
+  }
+
+  @Override
+  protected void collectImplicitComponents(DataComponentMap.Builder builder) {
+    super.collectImplicitComponents(builder);
+    if (storedExperience > 0) {
+      builder.set(DataComponentTypes.STORED_EXPERIENCE, storedExperience);
+    }
+  }
+
+  @Override
+  public void removeComponentsFromTag(ValueOutput output) {
+    super.removeComponentsFromTag(output);
+    output.discard("Experience");
+  }
+
+  @Override
+  public void setRemoved() {
+    super.setRemoved();
+    if (absorbingOrbs) {
+      OrbAbsorptionIndex.remove(this);
+    }
+  }
+
+  @Override
+  public void preRemoveSideEffects(BlockPos pos, BlockState state) {
+    super.preRemoveSideEffects(pos, state);
+    if (level != null && glassBottles > 0) {
+      Containers.dropItemStack(
+          level,
+          pos.getX(),
+          pos.getY(),
+          pos.getZ(),
+          new ItemStack(net.minecraft.world.item.Items.GLASS_BOTTLE, glassBottles));
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.block.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.eidee.minecraft.experiencebottler.mixin.ExperienceOrbAccessor;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.ExperienceOrb;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Indexes the bottlers that absorb experience orbs by the chunk sections their radius covers. When
+ * an orb is added to a level, only the bottlers registered for its section are checked. The cost
+ * therefore follows the number of orbs near absorbing bottlers, not the volume they cover, and
+ * levels without absorbing bottlers cost one map lookup per orb.
+ */
+public class OrbAbsorptionIndex {
+  private static final Map<
+          ResourceKey<Level>, Long2ObjectOpenHashMap<List<ExperienceBottlerBlockEntity>>>
+      BOTTLERS = new Reference2ObjectOpenHashMap<>();
+  private static final List<ExperienceOrb> PENDING = new ArrayList<>();
+
+  private OrbAbsorptionIndex() {}
+
+  private static void forEachSection(BlockPos pos, LongConsumer consumer) {
+    int radius = ExperienceBottlerConfig.getOrbAbsorptionRadius();
+    int minX = SectionPos.blockToSectionCoord(pos.getX() - radius);
+    int minY = SectionPos.blockToSectionCoord(pos.getY() - radius);
+    int minZ = SectionPos.blockToSectionCoord(pos.getZ() - radius);
+    int maxX = SectionPos.blockToSectionCoord(pos.getX() + radius);
+    int maxY = SectionPos.blockToSectionCoord(pos.getY() + radius);
+    int maxZ = SectionPos.blockToSectionCoord(pos.getZ() + radius);
+    for (int x = minX; x <= maxX; x++) {
+      for (int y = minY; y <= maxY; y++) {
+        for (int z = minZ; z <= maxZ; z++) {
+          consumer.accept(SectionPos.asLong(x, y, z));
+        }
+      }
+    }
+  }
+
+  /** Starts absorbing orbs into the bottler. */
+  public static void add(ExperienceBottlerBlockEntity blockEntity) {
+    Level level = blockEntity.getLevel();
+    if (level == null) {
+      return;
+    }
+    Long2ObjectOpenHashMap<List<ExperienceBottlerBlockEntity>> sections =
+        BOTTLERS.computeIfAbsent(level.dimension(), key -> new Long2ObjectOpenHashMap<>());
+    forEachSection(
+        blockEntity.getBlockPos(),
+        section -> {
+          List<ExperienceBottlerBlockEntity> bottlers =
+              sections.computeIfAbsent(section, key -> new ArrayList<>(1));
+          if (!bottlers.contains(blockEntity)) {
+            bottlers.add(blockEntity);
+          }
+        });
+  }
+
+  /** Stops absorbing orbs into the bottler. */
+  public static void remove(ExperienceBottlerBlockEntity blockEntity) {
+    Level level = blockEntity.getLevel();
+    if (level == null) {
+      return;
+    }
+    Long2ObjectOpenHashMap<List<ExperienceBottlerBlockEntity>> sections =
+        BOTTLERS.get(level.dimension());
+    if (sections == null) {
+      return;
+    }
+    forEachSection(
+        blockEntity.getBlockPos(),
+        section -> {
+          List<ExperienceBottlerBlockEntity> bottlers = sections.get(section);
+          if (bottlers != null && bottlers.remove(blockEntity) && bottlers.isEmpty()) {
+            sections.remove(section);
+          }
+        });
+    if (sections.isEmpty()) {
+      BOTTLERS.remove(level.dimension());
+    }
+  }
+
+  /**
+   * Queues an orb that has just been added to the level if a bottler may absorb it. The orb is not
+   * removed here, because the level is still adding it.
+   */
+  public static void onEntityLoad(Entity entity, ServerLevel level) {
+    if (entity instanceof ExperienceOrb orb && findBottler(orb, level) != null) {
+      PENDING.add(orb);
+    }
+  }
+
+  /** Queues an orb that is already in the level. */
+  public static void queue(ExperienceOrb orb) {
+    PENDING.add(orb);
+  }
+
+  /** Absorbs the queued orbs into the nearest bottler. Called at the end of each server tick. */
+  public static void absorbPending() {
+    if (PENDING.isEmpty()) {
+      return;
+    }
+    for (ExperienceOrb orb : PENDING) {
+      if (orb.isRemoved() || !(orb.level() instanceof ServerLevel level)) {
+        continue;
+      }
+      ExperienceBottlerBlockEntity bottler = findBottler(orb, level);
+      if (bottler != null) {
+        bottler.addExperience(getExperience(orb));
+        orb.discard();
+      }
+    }
+    PENDING.clear();
+  }
+
+  /** Forgets every bottler and orb, e.g. when the server stops. */
+  public static void clear() {
+    BOTTLERS.clear();
+    PENDING.clear();
+  }
+
+  @Nullable
+  private static ExperienceBottlerBlockEntity findBottler(ExperienceOrb orb, ServerLevel level) {
+    Long2ObjectOpenHashMap<List<ExperienceBottlerBlockEntity>> sections =
+        BOTTLERS.get(level.dimension());
+    if (sections == null) {
+      return null;
+    }
+    List<ExperienceBottlerBlockEntity> bottlers =
+        sections.get(SectionPos.asLong(orb.blockPosition()));
+    if (bottlers == null) {
+      return null;
+    }
+    int radius = ExperienceBottlerConfig.getOrbAbsorptionRadius();
+    double maxDistance = (double) radius * radius;
+    ExperienceBottlerBlockEntity nearest = null;
+    for (ExperienceBottlerBlockEntity bottler : bottlers) {
+      double distance = bottler.getBlockPos().getCenter().distanceToSqr(orb.position());
+      if (distance <= maxDistance && !bottler.isRemoved()) {
+        maxDistance = distance;
+        nearest = bottler;
+      }
+    }
+    return nearest;
+  }
+
+  private static long getExperience(ExperienceOrb orb) {
+    // Orbs that merged stand for several orbs of the same value.
+    int count = Math.max(((ExperienceOrbAccessor) orb).experiencebottler$getCount(), 1);
+    return (long) orb.getValue() * count;
+  }
+}
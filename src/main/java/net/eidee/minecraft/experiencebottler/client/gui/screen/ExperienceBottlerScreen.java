@@ -33,11 +33,14 @@ import net.eidee.minecraft.experiencebottler.client.gui.widget.ExperienceInput;
 import net.eidee.minecraft.experiencebottler.client.gui.widget.ExperienceType;
 import net.eidee.minecraft.experiencebottler.client.gui.widget.ExperienceTypeToggleButton;
 import net.eidee.minecraft.experiencebottler.network.packet.BottlingExperiencePacket;
+import net.eidee.minecraft.experiencebottler.network.packet.BulkBottlingPacket;
 import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.gui.GuiGraphicsExtractor;
+import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.components.Tooltip;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.input.KeyEvent;
 import net.minecraft.client.input.MouseButtonEvent;
@@ -46,7 +49,9 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.Identifier;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ClickType;
 import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 import org.lwjgl.glfw.GLFW;
 
@@ -61,12 +66,18 @@ public class ExperienceBottlerScreen extends AbstractContainerScreen<ExperienceB
       Component.translatable("gui.experiencebottler.label.bottling_experience");
   private static final Component AFTER_BOTTLING_EXPERIENCE_LABEL =
       Component.translatable("gui.experiencebottler.label.after_experience");
+  private static final Component SWITCH_SOURCE_LABEL =
+      Component.translatable("gui.experiencebottler.button.switch_source");
+  private static final Component SWITCH_SOURCE_TOOLTIP =
+      Component.translatable("gui.experiencebottler.button.switch_source.tooltip");
 
   private Component sourceExperienceLabel = Component.empty();
   private ExperienceInput sourceExperience;
   private ExperienceInput experienceValueToBottle;
   private ExperienceInput afterBottlingExperience;
+  private int bottlingExperience = -1;
   private long lastSendExperience = -1;
+  private int sourceRevision = -1;
   private ExperienceInput lastFocusedInput;
 
   public ExperienceBottlerScreen(
@@ -116,6 +127,7 @@ public class ExperienceBottlerScreen extends AbstractContainerScreen<ExperienceB
   }
 
   private void refreshSourceState() {
+    sourceRevision = menu.getSourceRevision();
     sourceExperienceLabel =
         Component.translatable(
             "gui.experiencebottler.label.source_experience", menu.getSourceName());
@@ -153,13 +165,28 @@ public class ExperienceBottlerScreen extends AbstractContainerScreen<ExperienceB
 
     int experience =
         (int) Math.min(experienceValueToBottle.getExperiencePoint(), Integer.MAX_VALUE);
-    if (experience != lastSendExperience) {
-      lastSendExperience = experience;
+    if (experience != bottlingExperience) {
+      bottlingExperience = experience;
       menu.setBottlingExperience(experience);
-      ClientPlayNetworking.send(new BottlingExperiencePacket(experience));
     }
   }
 
+  /** Sends the latest experience value to the server. At most once per tick, or before a click. */
+  private void sendBottlingExperience() {
+    if (bottlingExperience >= 0 && bottlingExperience != lastSendExperience) {
+      lastSendExperience = bottlingExperience;
+      ClientPlayNetworking.send(new BottlingExperiencePacket(bottlingExperience, 0));
+    }
+  }
+
+  /** Asks the server to reopen the menu on the other source. */
+  private void switchSource() {
+    // The reopened menu starts from the bottling experience the server remembers on close.
+    sendBottlingExperience();
+    minecraft.gameMode.handleInventoryButtonClick(
+        menu.containerId, ExperienceBottlerScreenHandler.SWITCH_SOURCE_BUTTON);
+  }
+
   @Override
   protected void init() {
     super.init();
@@ -192,11 +219,64 @@ public class ExperienceBottlerScreen extends AbstractContainerScreen<ExperienceB
             topPos + 95,
             onExperienceTypeChanged(afterBottlingExperience::setExperienceType)));
 
+    if (menu.canSwitchSource()) {
+      addRenderableWidget(
+          Button.builder(SWITCH_SOURCE_LABEL, button -> switchSource())
+              .bounds(leftPos + 20, topPos + 20, 40, 18)
+              .tooltip(Tooltip.create(SWITCH_SOURCE_TOOLTIP))
+              .build());
+    }
+
     titleLabelX = 20;
     menu.addSlotListener(this);
+    // Start from the bottling experience remembered by the server.
+    bottlingExperience = menu.getBottlingExperience();
+    lastSendExperience = bottlingExperience;
+    experienceValueToBottle.setExperiencePoint(bottlingExperience);
+    refreshSourceState();
+  }
+
+  @Override
+  protected void containerTick() {
+    super.containerTick();
+    menu.tickPredictions();
+    if (sourceRevision != menu.getSourceRevision()) {
+      refreshSourceState();
+    }
+    sendBottlingExperience();
+  }
+
+  @Override
+  protected void slotClicked(Slot slot, int slotId, int button, ClickType clickType) {
+    if (slot == null || slot.index != ExperienceBottlerScreenHandler.RESULT_SLOT) {
+      sendBottlingExperience();
+      super.slotClicked(slot, slotId, button, clickType);
+      return;
+    }
+
+    // Clicks on the result are applied to the source right away and tagged with a sequence
+    // number, which the server acknowledges along with the total it ends up with.
+    int sequence = menu.beginPrediction();
+    lastSendExperience = bottlingExperience;
+    if (clickType == ClickType.QUICK_MOVE && bottlingExperience > 0) {
+      // Bottle the whole stack of glass bottles with a single request.
+      int count = menu.getSlot(ExperienceBottlerScreenHandler.INPUT_SLOT).getItem().getCount();
+      menu.predictBottleInBulk(count);
+      ClientPlayNetworking.send(new BulkBottlingPacket(bottlingExperience, count, sequence));
+    } else {
+      // The server must know the latest value before it handles the click on the result.
+      ClientPlayNetworking.send(new BottlingExperiencePacket(bottlingExperience, sequence));
+      super.slotClicked(slot, slotId, button, clickType);
+    }
     refreshSourceState();
   }
 
+  @Override
+  public void onClose() {
+    sendBottlingExperience();
+    super.onClose();
+  }
+
   @Override
   public void removed() {
     menu.removeSlotListener(this);
@@ -275,8 +355,6 @@ public class ExperienceBottlerScreen extends AbstractContainerScreen<ExperienceB
         setFocused(experienceValueToBottle);
         syncFocusedInput();
       }
-    } else if (slotId == 2) {
-      refreshSourceState();
     }
   }
 
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.client.item;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import java.util.List;
+import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
+import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Caches the tooltip lines of bottled experience for the client player, so that hovering the same
+ * bottles frame after frame does not format and allocate them again. The lines depend on the
+ * player's total experience, so the cache is cleared whenever it changes.
+ */
+@Environment(EnvType.CLIENT)
+public class BottledExperienceTooltipCache {
+  private static final int MAX_SIZE = 128;
+  private static final Int2ObjectLinkedOpenHashMap<List<Component>> CACHE =
+      new Int2ObjectLinkedOpenHashMap<>();
+  private static long playerExperience = -1;
+
+  private BottledExperienceTooltipCache() {}
+
+  /** Returns the tooltip lines of a bottle of the given experience for the player. */
+  public static List<Component> getLines(int experience, Player player) {
+    long totalExperience = ExperienceUtil.getTotalExperience(player);
+    if (totalExperience != playerExperience) {
+      CACHE.clear();
+      playerExperience = totalExperience;
+    }
+    // Kept in access order, so the first entry is the least recently used.
+    List<Component> lines = CACHE.getAndMoveToLast(experience);
+    if (lines == null) {
+      lines = BottledExperienceComponent.createTooltipLines(experience, totalExperience);
+      CACHE.putAndMoveToLast(experience, lines);
+      if (CACHE.size() > MAX_SIZE) {
+        CACHE.removeFirst();
+      }
+    }
+    return lines;
+  }
+}
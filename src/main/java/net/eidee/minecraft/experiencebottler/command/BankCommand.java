@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.audit.AuditEventType;
+import net.eidee.minecraft.experiencebottler.audit.AuditSource;
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBank;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBanks;
+import net.eidee.minecraft.experiencebottler.util.ExperienceBuffer;
+import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * The {@code /experiencebottler bank} command, which shows the balance of the player in the
+ * experience bank and deposits the player's experience into it.
+ */
+public class BankCommand {
+  private static final SimpleCommandExceptionType ERROR_UNAVAILABLE =
+      new SimpleCommandExceptionType(
+          Component.translatable("commands.experiencebottler.bank.unavailable"));
+
+  private BankCommand() {}
+
+  public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+    dispatcher.register(
+        Commands.literal(ExperienceBottlerMod.MOD_ID)
+            .then(
+                Commands.literal("bank")
+                    .then(Commands.literal("balance").executes(BankCommand::balance))
+                    .then(
+                        Commands.literal("deposit")
+                            .then(
+                                Commands.argument("amount", LongArgumentType.longArg(1))
+                                    .executes(BankCommand::deposit)))));
+  }
+
+  private static ExperienceBank getBank() throws CommandSyntaxException {
+    ExperienceBank bank = ExperienceBanks.get();
+    if (bank == null) {
+      throw ERROR_UNAVAILABLE.create();
+    }
+    return bank;
+  }
+
+  private static int balance(CommandContext<CommandSourceStack> context)
+      throws CommandSyntaxException {
+    ServerPlayer player = context.getSource().getPlayerOrException();
+    long balance = getBank().getBalance(player.getUUID());
+    context
+        .getSource()
+        .sendSuccess(
+            () -> Component.translatable("commands.experiencebottler.bank.balance", balance),
+            false);
+    return (int) Math.min(balance, Integer.MAX_VALUE);
+  }
+
+  private static int deposit(CommandContext<CommandSourceStack> context)
+      throws CommandSyntaxException {
+    ServerPlayer player = context.getSource().getPlayerOrException();
+    ExperienceBank bank = getBank();
+    long amount =
+        Math.min(
+            LongArgumentType.getLong(context, "amount"), ExperienceUtil.getTotalExperience(player));
+    long deposited = bank.deposit(player.getUUID(), amount);
+    ExperienceBuffer.add(player, -deposited);
+    if (deposited > 0) {
+      ExperienceAuditLog.record(AuditEventType.DEPOSIT, AuditSource.BANK, player, deposited, 0);
+    }
+    long balance = bank.getBalance(player.getUUID());
+    context
+        .getSource()
+        .sendSuccess(
+            () ->
+                Component.translatable(
+                    "commands.experiencebottler.bank.deposit", deposited, balance),
+            false);
+    return (int) Math.min(deposited, Integer.MAX_VALUE);
+  }
+}
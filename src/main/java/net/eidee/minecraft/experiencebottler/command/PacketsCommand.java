@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.network.PacketRateLimiter;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * The {@code /experiencebottler packets} command, which shows operators how many bottling packets
+ * were dropped by the rate limiter, in total or from one player.
+ */
+public class PacketsCommand {
+  private PacketsCommand() {}
+
+  public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+    dispatcher.register(
+        Commands.literal(ExperienceBottlerMod.MOD_ID)
+            .then(
+                Commands.literal("packets")
+                    .requires(Commands.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                    .executes(PacketsCommand::total)
+                    .then(
+                        Commands.argument("player", EntityArgument.player())
+                            .executes(PacketsCommand::player))));
+  }
+
+  private static int total(CommandContext<CommandSourceStack> context) {
+    long dropped = PacketRateLimiter.BOTTLING.getDroppedPackets();
+    context
+        .getSource()
+        .sendSuccess(
+            () -> Component.translatable("commands.experiencebottler.packets.total", dropped),
+            false);
+    return (int) Math.min(dropped, Integer.MAX_VALUE);
+  }
+
+  private static int player(CommandContext<CommandSourceStack> context)
+      throws CommandSyntaxException {
+    ServerPlayer player = EntityArgument.getPlayer(context, "player");
+    long dropped = PacketRateLimiter.BOTTLING.getDroppedPackets(player.getUUID());
+    context
+        .getSource()
+        .sendSuccess(
+            () ->
+                Component.translatable(
+                    "commands.experiencebottler.packets.player", dropped, player.getDisplayName()),
+            false);
+    return (int) Math.min(dropped, Integer.MAX_VALUE);
+  }
+}
@@ -1,10 +1,13 @@
 package net.eidee.minecraft.experiencebottler.component;
 
+import com.mojang.serialization.Codec;
 import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
 import net.minecraft.core.component.DataComponentType;
+import net.minecraft.network.codec.ByteBufCodecs;
 
 public class DataComponentTypes {
   public static final DataComponentType<BottledExperienceComponent> BOTTLED_EXPERIENCE;
+  public static final DataComponentType<Long> STORED_EXPERIENCE;
 
   static {
     BOTTLED_EXPERIENCE =
@@ -12,5 +15,10 @@ public class DataComponentTypes {
             .persistent(BottledExperienceComponent.CODEC)
             .networkSynchronized(BottledExperienceComponent.STREAM_CODEC)
             .build();
+    STORED_EXPERIENCE =
+        DataComponentType.<Long>builder()
+            .persistent(Codec.LONG)
+            .networkSynchronized(ByteBufCodecs.VAR_LONG)
+            .build();
   }
 }
@@ -2,8 +2,13 @@ package net.eidee.minecraft.experiencebottler.component.type;
 
 import com.mojang.serialization.Codec;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
+import net.eidee.minecraft.experiencebottler.client.item.BottledExperienceTooltipCache;
 import net.eidee.minecraft.experiencebottler.component.DataComponentTypes;
+import net.eidee.minecraft.experiencebottler.item.BottledExperienceItem;
 import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -22,11 +27,48 @@ import net.minecraft.world.item.component.TooltipProvider;
 
 public record BottledExperienceComponent(int experience) implements TooltipProvider {
   public static final BottledExperienceComponent DEFAULT = new BottledExperienceComponent(0);
+  private static final BottledExperienceComponent[] DENOMINATIONS;
+  private static final int CACHE_SIZE = 1024;
+  private static final AtomicReferenceArray<BottledExperienceComponent> CACHE =
+      new AtomicReferenceArray<>(CACHE_SIZE);
   public static final Codec<BottledExperienceComponent> CODEC =
       ExtraCodecs.NON_NEGATIVE_INT.xmap(
-          BottledExperienceComponent::new, BottledExperienceComponent::experience);
+          BottledExperienceComponent::of, BottledExperienceComponent::experience);
   public static final StreamCodec<ByteBuf, BottledExperienceComponent> STREAM_CODEC =
-      ByteBufCodecs.VAR_INT.map(BottledExperienceComponent::new, BottledExperienceComponent::experience);
+      ByteBufCodecs.VAR_INT.map(BottledExperienceComponent::of, BottledExperienceComponent::experience);
+
+  static {
+    int[] experienceList = BottledExperienceItem.EXPERIENCE_LIST;
+    DENOMINATIONS = new BottledExperienceComponent[experienceList.length];
+    for (int i = 0; i < experienceList.length; i++) {
+      DENOMINATIONS[i] = new BottledExperienceComponent(experienceList[i]);
+    }
+  }
+
+  /**
+   * Returns a shared instance for the experience value. The values of {@link
+   * BottledExperienceItem#EXPERIENCE_LIST} always map to the same instance. Other values go through
+   * a small direct-mapped cache that keeps the most recently seen value of each slot. It needs no
+   * lock, so the codecs can use it from the network threads.
+   */
+  public static BottledExperienceComponent of(int experience) {
+    if (experience == 0) {
+      return DEFAULT;
+    }
+    for (BottledExperienceComponent denomination : DENOMINATIONS) {
+      if (denomination.experience == experience) {
+        return denomination;
+      }
+    }
+    int index = HashCommon.mix(experience) & (CACHE_SIZE - 1);
+    BottledExperienceComponent cached = CACHE.get(index);
+    if (cached != null && cached.experience == experience) {
+      return cached;
+    }
+    BottledExperienceComponent component = new BottledExperienceComponent(experience);
+    CACHE.set(index, component);
+    return component;
+  }
 
   /**
    * Get the experience value set in the item stack. If no experience value is set, it returns 0.
@@ -39,22 +81,25 @@ public record BottledExperienceComponent(int experience) implements TooltipProvi
 
   /** Set the experience value in item stack. */
   public static void setExperienceValue(ItemStack stack, int value) {
-    stack.set(DataComponentTypes.BOTTLED_EXPERIENCE, new BottledExperienceComponent(value));
+    stack.set(DataComponentTypes.BOTTLED_EXPERIENCE, of(value));
   }
 
-  private void doAppendTooltip(Consumer<Component> textConsumer, Player player) {
-    if (experience < 0) return;
+  /**
+   * Creates the tooltip lines of a bottle of the given experience. If {@code playerExperience} is
+   * not negative, a line with the level the player would reach by drinking it is included.
+   */
+  public static List<Component> createTooltipLines(int experience, long playerExperience) {
     Component arg = Component.literal(String.format("%,d", experience));
-    textConsumer.accept(
-        Component.translatable("item.experiencebottler.bottled_experience.tooltip.0", arg));
-
-    if (player != null) {
-      long playerExperience = ExperienceUtil.getTotalExperience(player);
-      int level = ExperienceUtil.getLevelFromTotalExperience(experience + playerExperience);
-      arg = Component.literal(String.format("%,d", level));
-      textConsumer.accept(
-          Component.translatable("item.experiencebottler.bottled_experience.tooltip.1", arg));
+    Component line =
+        Component.translatable("item.experiencebottler.bottled_experience.tooltip.0", arg);
+    if (playerExperience < 0) {
+      return List.of(line);
     }
+
+    int level = ExperienceUtil.getLevelFromTotalExperience(experience + playerExperience);
+    arg = Component.literal(String.format("%,d", level));
+    return List.of(
+        line, Component.translatable("item.experiencebottler.bottled_experience.tooltip.1", arg));
   }
 
   @Override
@@ -63,15 +108,23 @@ public record BottledExperienceComponent(int experience) implements TooltipProvi
       Consumer<Component> textConsumer,
       TooltipFlag type,
       DataComponentGetter components) {
+    if (experience < 0) {
+      return;
+    }
     if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
       appendTooltipClient(textConsumer);
     } else {
-      doAppendTooltip(textConsumer, null);
+      createTooltipLines(experience, -1).forEach(textConsumer);
     }
   }
 
   @Environment(EnvType.CLIENT)
   private void appendTooltipClient(Consumer<Component> textConsumer) {
-    doAppendTooltip(textConsumer, Minecraft.getInstance().player);
+    Player player = Minecraft.getInstance().player;
+    if (player != null) {
+      BottledExperienceTooltipCache.getLines(experience, player).forEach(textConsumer);
+    } else {
+      createTooltipLines(experience, -1).forEach(textConsumer);
+    }
   }
 }
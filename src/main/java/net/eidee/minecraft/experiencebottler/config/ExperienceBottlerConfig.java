@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.config;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.fabricmc.loader.api.FabricLoader;
+import org.slf4j.Logger;
+
+/**
+ * The configuration of the Experience Bottler, read once at startup from {@code
+ * config/experiencebottler.properties}. Missing entries are written back with their defaults.
+ */
+public class ExperienceBottlerConfig {
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static int bottlingPacketsPerSecond = 30;
+  private static int bottlingPacketBurst = 60;
+  private static boolean denominationsEnabled = false;
+  private static int orbAbsorptionRadius = 8;
+  private static boolean bankMemoryMapped = false;
+  private static boolean auditEnabled = true;
+  private static int auditMaxFileSizeMiB = 64;
+
+  private ExperienceBottlerConfig() {}
+
+  /** Loads the configuration file, creating it if it does not exist. */
+  public static void load() {
+    Path path =
+        FabricLoader.getInstance()
+            .getConfigDir()
+            .resolve(ExperienceBottlerMod.MOD_ID + ".properties");
+    Properties properties = new Properties();
+    if (Files.exists(path)) {
+      try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      } catch (IOException e) {
+        LOGGER.warn("Failed to read {}, using the defaults", path, e);
+      }
+    }
+
+    int size = properties.size();
+    bottlingPacketsPerSecond =
+        getInt(properties, "network.bottlingPacketsPerSecond", bottlingPacketsPerSecond, 1);
+    bottlingPacketBurst =
+        getInt(properties, "network.bottlingPacketBurst", bottlingPacketBurst, 1);
+    denominationsEnabled =
+        getBoolean(properties, "bottling.denominations", denominationsEnabled);
+    orbAbsorptionRadius =
+        Math.min(getInt(properties, "tank.orbAbsorptionRadius", orbAbsorptionRadius, 1), 32);
+    bankMemoryMapped = getBoolean(properties, "bank.memoryMapped", bankMemoryMapped);
+    auditEnabled = getBoolean(properties, "audit.enabled", auditEnabled);
+    auditMaxFileSizeMiB = getInt(properties, "audit.maxFileSizeMiB", auditMaxFileSizeMiB, 1);
+
+    if (properties.size() != size) {
+      try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+        properties.store(writer, "Experience Bottler");
+      } catch (IOException e) {
+        LOGGER.warn("Failed to write {}", path, e);
+      }
+    }
+  }
+
+  private static int getInt(Properties properties, String key, int defaultValue, int minValue) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      properties.setProperty(key, Integer.toString(defaultValue));
+      return defaultValue;
+    }
+    try {
+      return Math.max(Integer.parseInt(value.trim()), minValue);
+    } catch (NumberFormatException e) {
+      LOGGER.warn("Invalid value '{}' for {}, using {}", value, key, defaultValue);
+      return defaultValue;
+    }
+  }
+
+  private static boolean getBoolean(Properties properties, String key, boolean defaultValue) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      properties.setProperty(key, Boolean.toString(defaultValue));
+      return defaultValue;
+    }
+    return Boolean.parseBoolean(value.trim());
+  }
+
+  /** Returns how many bottling packets per second a player may send on average. */
+  public static int getBottlingPacketsPerSecond() {
+    return bottlingPacketsPerSecond;
+  }
+
+  /** Returns how many bottling packets a player may send at once after being idle. */
+  public static int getBottlingPacketBurst() {
+    return bottlingPacketBurst;
+  }
+
+  /** Returns whether the bottler splits the bottling experience into fixed denominations. */
+  public static boolean isDenominationsEnabled() {
+    return denominationsEnabled;
+  }
+
+  /** Returns the radius in blocks within which a powered bottler absorbs experience orbs. */
+  public static int getOrbAbsorptionRadius() {
+    return orbAbsorptionRadius;
+  }
+
+  /** Returns whether the experience bank keeps its accounts in a memory-mapped file. */
+  public static boolean isBankMemoryMapped() {
+    return bankMemoryMapped;
+  }
+
+  /** Returns whether the movements of experience are recorded in the audit log. */
+  public static boolean isAuditEnabled() {
+    return auditEnabled;
+  }
+
+  /** Returns the size in MiB at which the audit log starts a new file. */
+  public static int getAuditMaxFileSizeMiB() {
+    return auditMaxFileSizeMiB;
+  }
+}
@@ -27,8 +27,10 @@ package net.eidee.minecraft.experiencebottler.core.init;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.eidee.minecraft.experiencebottler.annotation.MethodsReturnNonnullByDefault;
 import net.eidee.minecraft.experiencebottler.block.Blocks;
+import net.eidee.minecraft.experiencebottler.block.entity.BlockEntityTypes;
 import net.eidee.minecraft.experiencebottler.core.constants.Identifiers;
 import net.fabricmc.fabric.api.creativetab.v1.CreativeModeTabEvents;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
@@ -74,5 +76,12 @@ public class BlockInitializer {
         CreativeModeTabs.FUNCTIONAL_BLOCKS,
         null,
         Identifiers.EXPERIENCE_BOTTLER);
+    Registry.register(
+        BuiltInRegistries.BLOCK_ENTITY_TYPE,
+        Identifiers.EXPERIENCE_BOTTLER,
+        BlockEntityTypes.EXPERIENCE_BOTTLER);
+    ItemStorage.SIDED.registerForBlockEntity(
+        (blockEntity, direction) -> blockEntity.getItemStorage(),
+        BlockEntityTypes.EXPERIENCE_BOTTLER);
   }
 }
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.core.init;
+
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBanks;
+import net.eidee.minecraft.experiencebottler.block.entity.ExperienceBottlerBlockEntity;
+import net.eidee.minecraft.experiencebottler.block.entity.OrbAbsorptionIndex;
+import net.eidee.minecraft.experiencebottler.network.PacketRateLimiter;
+import net.eidee.minecraft.experiencebottler.util.ExperienceBuffer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+
+/** Experience Bottler's event initializer. */
+public class EventInitializer {
+  private EventInitializer() {}
+
+  /** Initializes the event listeners. */
+  static void init() {
+    ServerTickEvents.END_SERVER_TICK.register(server -> ExperienceBuffer.flush());
+    ServerPlayConnectionEvents.DISCONNECT.register(
+        (handler, server) -> {
+          ExperienceBuffer.remove(handler.getPlayer());
+          PacketRateLimiter.BOTTLING.remove(handler.getPlayer());
+        });
+
+    ServerEntityEvents.ENTITY_LOAD.register(OrbAbsorptionIndex::onEntityLoad);
+    ServerTickEvents.END_SERVER_TICK.register(server -> OrbAbsorptionIndex.absorbPending());
+    ServerLifecycleEvents.SERVER_STOPPED.register(server -> OrbAbsorptionIndex.clear());
+    ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register(
+        (blockEntity, world) -> {
+          if (blockEntity instanceof ExperienceBottlerBlockEntity tank && tank.isAbsorbingOrbs()) {
+            OrbAbsorptionIndex.add(tank);
+          }
+        });
+
+    ServerLifecycleEvents.SERVER_STARTED.register(ExperienceBanks::open);
+    ServerTickEvents.END_SERVER_TICK.register(server -> ExperienceBanks.flush());
+    ServerLifecycleEvents.SERVER_STOPPED.register(server -> ExperienceBanks.close());
+
+    ServerLifecycleEvents.SERVER_STARTED.register(ExperienceAuditLog::open);
+    ServerLifecycleEvents.SERVER_STOPPED.register(server -> ExperienceAuditLog.close());
+  }
+}
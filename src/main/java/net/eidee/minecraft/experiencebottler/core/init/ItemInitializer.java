@@ -73,6 +73,7 @@ public class ItemInitializer {
   static void init() {
     registerDataComponent("experience", DataComponentTypes.BOTTLED_EXPERIENCE);
     ItemComponentTooltipProviderRegistry.addLast(DataComponentTypes.BOTTLED_EXPERIENCE);
+    registerDataComponent("stored_experience", DataComponentTypes.STORED_EXPERIENCE);
 
     registerItem(
         Items.BOTTLED_EXPERIENCE,
@@ -24,6 +24,7 @@
 
 package net.eidee.minecraft.experiencebottler.core.init;
 
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
@@ -32,16 +33,21 @@ public class ModInitializer {
 
   /** Mod initialization for the server. */
   public static void init() {
+    ExperienceBottlerConfig.load();
+    AttachmentInitializer.init();
     BlockInitializer.init();
     ItemInitializer.init();
     StatInitializer.init();
     NetworkInitializer.init();
     ScreenInitializer.init();
+    EventInitializer.init();
+    CommandInitializer.init();
   }
 
   /** Mod initialization for the client. */
   @Environment(EnvType.CLIENT)
   public static void initClient() {
+    NetworkInitializer.initClient();
     ScreenInitializer.initClient();
   }
 }
@@ -25,6 +25,11 @@
 package net.eidee.minecraft.experiencebottler.core.init;
 
 import net.eidee.minecraft.experiencebottler.network.packet.BottlingExperiencePacket;
+import net.eidee.minecraft.experiencebottler.network.packet.BulkBottlingPacket;
+import net.eidee.minecraft.experiencebottler.network.packet.ExperienceSourcePacket;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 
@@ -38,5 +43,19 @@ public class NetworkInitializer {
         .register(BottlingExperiencePacket.ID, BottlingExperiencePacket.CODEC);
     ServerPlayNetworking.registerGlobalReceiver(
         BottlingExperiencePacket.ID, BottlingExperiencePacket::receive);
+
+    PayloadTypeRegistry.serverboundPlay()
+        .register(BulkBottlingPacket.ID, BulkBottlingPacket.CODEC);
+    ServerPlayNetworking.registerGlobalReceiver(BulkBottlingPacket.ID, BulkBottlingPacket::receive);
+
+    PayloadTypeRegistry.clientboundPlay()
+        .register(ExperienceSourcePacket.ID, ExperienceSourcePacket.CODEC);
+  }
+
+  /** Initializes the networks at client-side. */
+  @Environment(EnvType.CLIENT)
+  static void initClient() {
+    ClientPlayNetworking.registerGlobalReceiver(
+        ExperienceSourcePacket.ID, ExperienceSourcePacket::receive);
   }
 }
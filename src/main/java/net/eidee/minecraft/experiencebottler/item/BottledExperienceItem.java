@@ -24,8 +24,12 @@
 
 package net.eidee.minecraft.experiencebottler.item;
 
+import net.eidee.minecraft.experiencebottler.audit.AuditEventType;
+import net.eidee.minecraft.experiencebottler.audit.AuditSource;
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
 import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
-import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
+import net.eidee.minecraft.experiencebottler.jfr.DrinkingEvent;
+import net.eidee.minecraft.experiencebottler.util.ExperienceBuffer;
 import net.minecraft.advancements.triggers.CriteriaTriggers;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.stats.Stats;
@@ -51,14 +55,34 @@ public class BottledExperienceItem extends Item {
     super(settings);
   }
 
+  /**
+   * Returns the largest value of {@link #EXPERIENCE_LIST} that does not exceed the given
+   * experience, or the experience itself if it is smaller than all of them.
+   */
+  public static int getDenomination(int experience) {
+    for (int i = EXPERIENCE_LIST.length - 1; i >= 0; i--) {
+      if (EXPERIENCE_LIST[i] <= experience) {
+        return EXPERIENCE_LIST[i];
+      }
+    }
+    return experience;
+  }
+
   @Override
   public InteractionResult use(Level world, Player user, InteractionHand hand) {
     return ItemUtils.startUsingInstantly(world, user, hand);
   }
 
+  /**
+   * Drinks the bottle. When the player is sneaking, the whole stack is drunk at once: the
+   * experience of all bottles is added in one go and all glass bottles are returned together.
+   */
   @Override
   public ItemStack finishUsingItem(ItemStack stack, Level world, LivingEntity user) {
+    DrinkingEvent event = new DrinkingEvent();
+    event.begin();
     Player player = user instanceof Player castUser ? castUser : null;
+    int count = player != null && player.isShiftKeyDown() ? stack.getCount() : 1;
 
     if (player instanceof ServerPlayer serverPlayer) {
       CriteriaTriggers.CONSUME_ITEM.trigger(serverPlayer, stack);
@@ -66,25 +90,36 @@ public class BottledExperienceItem extends Item {
 
     if (player != null) {
       if (!world.isClientSide()) {
-        int experience = BottledExperienceComponent.getExperienceValue(stack);
+        long experience = (long) BottledExperienceComponent.getExperienceValue(stack) * count;
         if (experience > 0) {
-          ExperienceUtil.addExperience(player, experience);
+          ExperienceBuffer.add(player, experience);
+          ExperienceAuditLog.record(
+              AuditEventType.DRINK, AuditSource.PLAYER, player, experience, count);
+        }
+        if (event.shouldCommit()) {
+          event.experience = experience;
+          event.bottles = count;
+          event.playerIdHash = player.getUUID().hashCode();
+          event.commit();
         }
       }
 
-      player.awardStat(Stats.ITEM_USED.get(this));
+      player.awardStat(Stats.ITEM_USED.get(this), count);
       if (!player.isCreative()) {
-        stack.shrink(1);
+        stack.shrink(count);
       }
     }
 
     if (player == null || !player.isCreative()) {
       if (stack.isEmpty()) {
-        return new ItemStack(Items.GLASS_BOTTLE);
+        return new ItemStack(Items.GLASS_BOTTLE, count);
       }
 
       if (player != null) {
-        player.getInventory().add(new ItemStack(Items.GLASS_BOTTLE));
+        ItemStack glassBottles = new ItemStack(Items.GLASS_BOTTLE, count);
+        if (!player.getInventory().add(glassBottles)) {
+          player.drop(glassBottles, false);
+        }
       }
     }
 
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.network;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.minecraft.server.level.ServerPlayer;
+import org.slf4j.Logger;
+
+/**
+ * A per-player token bucket for serverbound packets. Each packet takes a token, and tokens refill
+ * at a steady rate up to the burst size. Packets without a token are dropped and counted. Only
+ * used on the server thread.
+ */
+public class PacketRateLimiter {
+  public static final PacketRateLimiter BOTTLING =
+      new PacketRateLimiter(
+          "bottling",
+          ExperienceBottlerConfig::getBottlingPacketsPerSecond,
+          ExperienceBottlerConfig::getBottlingPacketBurst);
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+  private static final long REPORT_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+  private final String name;
+  private final IntSupplier packetsPerSecond;
+  private final IntSupplier burst;
+  private final Map<UUID, Budget> budgets = new Object2ObjectOpenHashMap<>();
+  private long droppedPackets;
+
+  PacketRateLimiter(String name, IntSupplier packetsPerSecond, IntSupplier burst) {
+    this.name = name;
+    this.packetsPerSecond = packetsPerSecond;
+    this.burst = burst;
+  }
+
+  /** Takes a token for a packet from the player. Returns false if the packet should be dropped. */
+  public boolean tryAcquire(ServerPlayer player) {
+    long now = System.nanoTime();
+    if (tryAcquire(player.getUUID(), now)) {
+      return true;
+    }
+
+    Budget budget = budgets.get(player.getUUID());
+    if (now - budget.lastReport >= REPORT_INTERVAL) {
+      LOGGER.warn(
+          "Dropped {} {} packets from {} ({}) in the last minute, {} in total",
+          budget.droppedSinceReport,
+          name,
+          player.getName().getString(),
+          player.getUUID(),
+          budget.dropped);
+      budget.droppedSinceReport = 0;
+      budget.lastReport = now;
+    }
+    return false;
+  }
+
+  /**
+   * Takes a token for a packet from the player at the given time in nanoseconds, counting the
+   * packet as dropped if there is none.
+   */
+  boolean tryAcquire(UUID player, long now) {
+    Budget budget = budgets.computeIfAbsent(player, uuid -> new Budget(burst.getAsInt(), now));
+    budget.refill(now, packetsPerSecond.getAsInt(), burst.getAsInt());
+    if (budget.tokens >= 1.0) {
+      budget.tokens -= 1.0;
+      return true;
+    }
+
+    budget.dropped++;
+    budget.droppedSinceReport++;
+    droppedPackets++;
+    return false;
+  }
+
+  /** Forgets the budget of the player. Called when the player disconnects. */
+  public void remove(ServerPlayer player) {
+    budgets.remove(player.getUUID());
+  }
+
+  /** Returns the number of packets dropped from the player since it connected. */
+  public long getDroppedPackets(UUID player) {
+    Budget budget = budgets.get(player);
+    return budget != null ? budget.dropped : 0;
+  }
+
+  /** Returns the number of packets dropped from all players since the server started. */
+  public long getDroppedPackets() {
+    return droppedPackets;
+  }
+
+  private static final class Budget {
+    private double tokens;
+    private long lastRefill;
+    private long dropped;
+    private long droppedSinceReport;
+    private long lastReport;
+
+    private Budget(int tokens, long now) {
+      this.tokens = tokens;
+      this.lastRefill = now;
+      this.lastReport = now - REPORT_INTERVAL;
+    }
+
+    private void refill(long now, int packetsPerSecond, int burst) {
+      tokens = Math.min(burst, tokens + (now - lastRefill) * packetsPerSecond / 1.0E9);
+      lastRefill = now;
+    }
+  }
+}
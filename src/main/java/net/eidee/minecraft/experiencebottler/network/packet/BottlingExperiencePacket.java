@@ -26,6 +26,8 @@ package net.eidee.minecraft.experiencebottler.network.packet;
 
 import io.netty.buffer.ByteBuf;
 import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.jfr.BottlingPacketEvent;
+import net.eidee.minecraft.experiencebottler.network.PacketRateLimiter;
 import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.codec.ByteBufCodecs;
@@ -34,15 +36,23 @@ import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 
 /**
  * This class handles the packets that reflect the experience values entered by the user in the
- * client to the server.
+ * client to the server. A packet sent right before a click on the result also carries the sequence
+ * number of the prediction the client made for that click; otherwise the sequence number is 0.
  */
-public record BottlingExperiencePacket(int experience) implements CustomPacketPayload {
+public record BottlingExperiencePacket(int experience, int sequence)
+    implements CustomPacketPayload {
   public static final CustomPacketPayload.Type<BottlingExperiencePacket> ID;
   public static final StreamCodec<ByteBuf, BottlingExperiencePacket> CODEC;
 
   static {
     ID = new CustomPacketPayload.Type<>(ExperienceBottlerMod.identifier("bottling_experience"));
-    CODEC = ByteBufCodecs.VAR_INT.map(BottlingExperiencePacket::new, BottlingExperiencePacket::experience);
+    CODEC =
+        StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            BottlingExperiencePacket::experience,
+            ByteBufCodecs.VAR_INT,
+            BottlingExperiencePacket::sequence,
+            BottlingExperiencePacket::new);
   }
 
   /**
@@ -53,9 +63,22 @@ public record BottlingExperiencePacket(int experience) implements CustomPacketPa
    */
   public static void receive(
       BottlingExperiencePacket payload, ServerPlayNetworking.Context context) {
-    if (context.player().containerMenu
-        instanceof ExperienceBottlerScreenHandler screenHandler) {
-      screenHandler.setBottlingExperience(payload.experience());
+    BottlingPacketEvent event = new BottlingPacketEvent();
+    event.begin();
+    boolean rateLimited = !PacketRateLimiter.BOTTLING.tryAcquire(context.player());
+    boolean valueChanged = false;
+    if (!rateLimited
+        && context.player().containerMenu instanceof ExperienceBottlerScreenHandler screenHandler) {
+      valueChanged = payload.experience() != screenHandler.getBottlingExperience();
+      screenHandler.requestBottlingExperience(payload.experience(), payload.sequence());
+    }
+    if (event.shouldCommit()) {
+      event.experience = payload.experience();
+      event.sequence = payload.sequence();
+      event.playerIdHash = context.player().getUUID().hashCode();
+      event.rateLimited = rateLimited;
+      event.valueChanged = valueChanged;
+      event.commit();
     }
   }
 
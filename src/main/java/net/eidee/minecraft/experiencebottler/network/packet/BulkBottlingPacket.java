@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.network.packet;
+
+import io.netty.buffer.ByteBuf;
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.network.PacketRateLimiter;
+import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * This class handles the packets that ask the server to bottle several bottles of the same
+ * experience value at once.
+ */
+public record BulkBottlingPacket(int experience, int count, int sequence)
+    implements CustomPacketPayload {
+  public static final CustomPacketPayload.Type<BulkBottlingPacket> ID;
+  public static final StreamCodec<ByteBuf, BulkBottlingPacket> CODEC;
+
+  static {
+    ID = new CustomPacketPayload.Type<>(ExperienceBottlerMod.identifier("bulk_bottling"));
+    CODEC =
+        StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            BulkBottlingPacket::experience,
+            ByteBufCodecs.VAR_INT,
+            BulkBottlingPacket::count,
+            ByteBufCodecs.VAR_INT,
+            BulkBottlingPacket::sequence,
+            BulkBottlingPacket::new);
+  }
+
+  /**
+   * Bottles the requested number of bottles in one transaction: one experience removal, one
+   * inventory insertion and one container sync.
+   *
+   * @param payload The experience value and the number of bottles sent by the client.
+   * @param context The context of the packet.
+   */
+  public static void receive(BulkBottlingPacket payload, ServerPlayNetworking.Context context) {
+    ServerPlayer player = context.player();
+    if (!PacketRateLimiter.BOTTLING.tryAcquire(player)) {
+      return;
+    }
+    if (player.containerMenu instanceof ExperienceBottlerScreenHandler screenHandler
+        && screenHandler.stillValid(player)) {
+      screenHandler.requestBottlingExperience(payload.experience(), payload.sequence());
+      screenHandler.bottleInBulk(player, payload.count());
+      screenHandler.acknowledgeRequest();
+      screenHandler.broadcastChanges();
+    }
+  }
+
+  @Override
+  public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+    return ID;
+  }
+}
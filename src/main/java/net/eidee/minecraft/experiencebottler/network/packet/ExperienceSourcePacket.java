@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.network.packet;
+
+import net.eidee.minecraft.experiencebottler.ExperienceBottlerMod;
+import net.eidee.minecraft.experiencebottler.screen.ExperienceBottlerScreenHandler;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+
+/**
+ * This class handles the packets that send the state of the experience source of an open
+ * Experience Bottler menu to the client. The initial state is sent with the opening data.
+ */
+public record ExperienceSourcePacket(
+    int containerId, long totalExperience, int remainingExperience, int sequence)
+    implements CustomPacketPayload {
+  public static final CustomPacketPayload.Type<ExperienceSourcePacket> ID;
+  public static final StreamCodec<RegistryFriendlyByteBuf, ExperienceSourcePacket> CODEC;
+
+  static {
+    ID = new CustomPacketPayload.Type<>(ExperienceBottlerMod.identifier("experience_source"));
+    CODEC =
+        StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            ExperienceSourcePacket::containerId,
+            ByteBufCodecs.VAR_LONG,
+            ExperienceSourcePacket::totalExperience,
+            ByteBufCodecs.VAR_INT,
+            ExperienceSourcePacket::remainingExperience,
+            ByteBufCodecs.VAR_INT,
+            ExperienceSourcePacket::sequence,
+            ExperienceSourcePacket::new);
+  }
+
+  /**
+   * Reflect the state of the experience source sent by the server.
+   *
+   * @param payload The state of the experience source.
+   * @param context The context of the packet.
+   */
+  @Environment(EnvType.CLIENT)
+  public static void receive(ExperienceSourcePacket payload, ClientPlayNetworking.Context context) {
+    if (context.player().containerMenu instanceof ExperienceBottlerScreenHandler screenHandler
+        && screenHandler.containerId == payload.containerId()) {
+      screenHandler.setSourceExperience(
+          payload.totalExperience(), payload.remainingExperience(), payload.sequence());
+    }
+  }
+
+  @Override
+  public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+    return ID;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.eidee.minecraft.experiencebottler.screen;
+
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentSerialization;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+
+/**
+ * The data sent to the client when the Experience Bottler menu is opened, so that the screen can
+ * show the real values from its first frame.
+ *
+ * @param sourceName The name of the experience source.
+ * @param totalExperience The total experience of the source.
+ * @param bottlingExperience The bottling experience the player last used.
+ * @param denominations Whether the bottling experience is split into fixed denominations.
+ * @param sourceSwitchable Whether the menu can be switched to another source.
+ */
+public record ExperienceBottlerOpeningData(
+    Component sourceName,
+    long totalExperience,
+    int bottlingExperience,
+    boolean denominations,
+    boolean sourceSwitchable) {
+  public static final StreamCodec<RegistryFriendlyByteBuf, ExperienceBottlerOpeningData> CODEC =
+      StreamCodec.composite(
+          ComponentSerialization.STREAM_CODEC,
+          ExperienceBottlerOpeningData::sourceName,
+          ByteBufCodecs.VAR_LONG,
+          ExperienceBottlerOpeningData::totalExperience,
+          ByteBufCodecs.VAR_INT,
+          ExperienceBottlerOpeningData::bottlingExperience,
+          ByteBufCodecs.BOOL,
+          ExperienceBottlerOpeningData::denominations,
+          ByteBufCodecs.BOOL,
+          ExperienceBottlerOpeningData::sourceSwitchable,
+          ExperienceBottlerOpeningData::new);
+
+  /** Creates the opening data from the source of a menu about to be opened by the player. */
+  public static ExperienceBottlerOpeningData of(ExperienceSource source, int bottlingExperience) {
+    return new ExperienceBottlerOpeningData(
+        source.getSourceName(),
+        source.getTotalExperience(),
+        bottlingExperience,
+        ExperienceBottlerConfig.isDenominationsEnabled(),
+        source.getAlternative() != null);
+  }
+}
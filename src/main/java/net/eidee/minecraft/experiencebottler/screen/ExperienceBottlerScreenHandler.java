@@ -24,18 +24,32 @@
 
 package net.eidee.minecraft.experiencebottler.screen;
 
+import java.util.function.Function;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.eidee.minecraft.experiencebottler.annotation.MethodsReturnNonnullByDefault;
+import net.eidee.minecraft.experiencebottler.attachment.AttachmentTypes;
+import net.eidee.minecraft.experiencebottler.audit.AuditEventType;
+import net.eidee.minecraft.experiencebottler.audit.ExperienceAuditLog;
 import net.eidee.minecraft.experiencebottler.component.type.BottledExperienceComponent;
+import net.eidee.minecraft.experiencebottler.config.ExperienceBottlerConfig;
+import net.eidee.minecraft.experiencebottler.item.BottledExperienceItem;
 import net.eidee.minecraft.experiencebottler.item.Items;
+import net.eidee.minecraft.experiencebottler.jfr.BottlingEvent;
+import net.eidee.minecraft.experiencebottler.jfr.BulkBottlingEvent;
+import net.eidee.minecraft.experiencebottler.network.packet.ExperienceSourcePacket;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.menu.v1.ExtendedMenuProvider;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.Container;
+import net.minecraft.world.MenuProvider;
 import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ClickType;
 import net.minecraft.world.inventory.ResultContainer;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
@@ -43,11 +57,37 @@ import net.minecraft.world.item.ItemStack;
 @ParametersAreNonnullByDefault
 @MethodsReturnNonnullByDefault
 public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
+  public static final int INPUT_SLOT = 0;
+  public static final int RESULT_SLOT = 1;
+  /** The id of the menu button that switches the menu to the alternative of its source. */
+  public static final int SWITCH_SOURCE_BUTTON = 0;
+  private static final int INVENTORY_START = 2;
+  private static final Component TITLE =
+      Component.translatable("container.experiencebottler.experience_bottler");
+
+  private final Player player;
   private final ExperienceSource experienceSource;
   private final Container input;
   private final Container result;
+  private final boolean denominations;
+  private final boolean sourceSwitchable;
+  private final Runnable sourceListener = () -> sourceChanged = true;
+  private final boolean sourceNotifies;
+  private final int openedBottlingExperience;
   private int bottlingExperience;
+  private int remainingExperience;
+  private int requestedBottlingExperience = -1;
   private int resultExperience;
+  private long syncedSourceExperience;
+  private int syncedRemainingExperience;
+  private boolean sourceChanged;
+  private int requestedSequence;
+  private int acknowledgedSequence;
+  private int syncedSequence;
+  private boolean requestedSequenceAged;
+  private int predictionSequence;
+  private int sourceRevision;
+  private int resultRevision;
 
   private final class ResultSlot extends Slot {
     private int pendingResultExperience;
@@ -81,9 +121,21 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
 
     @Override
     public void onTake(Player player, ItemStack stack) {
+      BottlingEvent event = new BottlingEvent();
+      event.begin();
+      int revision = resultRevision;
       int experience = pendingResultExperience;
       pendingResultExperience = 0;
-      if (!player.isCreative()) {
+      if (player.isCreative()) {
+        if (experience > 0) {
+          ExperienceAuditLog.record(
+              AuditEventType.CREATIVE_BOTTLE,
+              experienceSource.getAuditSource(),
+              player,
+              experience,
+              1);
+        }
+      } else {
         ItemStack glassBottle = input.getItem(0).copy();
         if (!glassBottle.isEmpty()) {
           glassBottle.shrink(1);
@@ -91,18 +143,42 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
         }
         if (experience > 0 && experience <= experienceSource.getTotalExperience()) {
           experienceSource.removeExperience(experience);
+          ExperienceAuditLog.record(
+              AuditEventType.BOTTLE, experienceSource.getAuditSource(), player, experience, 1);
+          consumeRemainingExperience(experience, 1);
         }
         updateResult();
       }
+      if (event.shouldCommit()) {
+        event.experience = experience;
+        event.playerIdHash = player.getUUID().hashCode();
+        event.creative = player.isCreative();
+        event.recomputed = resultRevision != revision;
+        event.commit();
+      }
     }
   }
 
-  public ExperienceBottlerScreenHandler(
-      int syncId, Inventory inventory, ExperienceSource experienceSource) {
+  private ExperienceBottlerScreenHandler(
+      int syncId,
+      Inventory inventory,
+      ExperienceSource experienceSource,
+      int bottlingExperience,
+      boolean denominations,
+      boolean sourceSwitchable) {
     super(ScreenHandlerTypes.EXPERIENCE_BOTTLER, syncId);
+    this.player = inventory.player;
     this.experienceSource = experienceSource;
-
-    experienceSource.startOpen(inventory.player);
+    this.denominations = denominations;
+    this.sourceSwitchable = sourceSwitchable;
+    this.openedBottlingExperience = bottlingExperience;
+    this.bottlingExperience = bottlingExperience;
+    this.remainingExperience = bottlingExperience;
+    this.syncedRemainingExperience = bottlingExperience;
+    // The opening data already carries the current total to the client.
+    this.syncedSourceExperience = experienceSource.getTotalExperience();
+    this.sourceNotifies =
+        !inventory.player.level().isClientSide() && experienceSource.addListener(sourceListener);
 
     input =
         new SimpleContainer(1) {
@@ -112,13 +188,7 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
           }
         };
 
-    result =
-        new ResultContainer() {
-          @Override
-          public void setChanged() {
-            slotsChanged(this);
-          }
-        };
+    result = new ResultContainer();
 
     addSlot(
         new Slot(input, 0, 20, 44) {
@@ -130,14 +200,6 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
 
     addSlot(new ResultSlot());
 
-    addSlot(
-        new HiddenSlot(experienceSource, 0) {
-          @Override
-          public void setChanged() {
-            slotsChanged(experienceSource);
-          }
-        });
-
     for (int i = 0; i < 3; ++i) {
       for (int j = 0; j < 9; ++j) {
         addSlot(new Slot(inventory, 9 + j + (i * 9), 20 + (j * 18), 128 + (i * 18)));
@@ -149,23 +211,107 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
     }
   }
 
-  public ExperienceBottlerScreenHandler(int syncId, Inventory inventory) {
-    this(syncId, inventory, ExperienceSource.forClient());
+  public ExperienceBottlerScreenHandler(
+      int syncId, Inventory inventory, ExperienceSource experienceSource) {
+    this(syncId, inventory, experienceSource, ExperienceBottlerConfig.isDenominationsEnabled());
+  }
+
+  public ExperienceBottlerScreenHandler(
+      int syncId, Inventory inventory, ExperienceSource experienceSource, boolean denominations) {
+    this(
+        syncId,
+        inventory,
+        experienceSource,
+        getRememberedBottlingExperience(inventory.player),
+        denominations,
+        false);
+  }
+
+  public ExperienceBottlerScreenHandler(
+      int syncId, Inventory inventory, ExperienceBottlerOpeningData data) {
+    this(
+        syncId,
+        inventory,
+        ExperienceSource.forClient(data.sourceName(), data.totalExperience()),
+        data.bottlingExperience(),
+        data.denominations(),
+        data.sourceSwitchable());
+  }
+
+  /** Creates the provider of a menu on the source the factory creates for the opening player. */
+  public static MenuProvider createMenuProvider(Function<Player, ExperienceSource> sourceFactory) {
+    return new ExtendedMenuProvider<>() {
+      @Override
+      public ExperienceBottlerOpeningData getScreenOpeningData(ServerPlayer player) {
+        return ExperienceBottlerOpeningData.of(
+            sourceFactory.apply(player), getRememberedBottlingExperience(player));
+      }
+
+      @Override
+      public Component getDisplayName() {
+        return TITLE;
+      }
+
+      @Override
+      public ExperienceBottlerScreenHandler createMenu(
+          int syncId, Inventory inventory, Player player) {
+        return new ExperienceBottlerScreenHandler(syncId, inventory, sourceFactory.apply(player));
+      }
+    };
   }
 
+  /** Returns the bottling experience the player used the last time they closed the bottler. */
+  public static int getRememberedBottlingExperience(Player player) {
+    return Math.max(player.getAttachedOrElse(AttachmentTypes.BOTTLING_EXPERIENCE, 0), 0);
+  }
+
+  /**
+   * Returns the experience of the next bottle. In denomination mode, the bottling experience is
+   * split into the values of {@link BottledExperienceItem#EXPERIENCE_LIST} plus a remainder, and
+   * this is the largest of those that fits in what is left of the current split.
+   */
+  private int getNextBottleExperience() {
+    if (bottlingExperience <= 0) {
+      return 0;
+    }
+    if (!denominations) {
+      return bottlingExperience;
+    }
+    return BottledExperienceItem.getDenomination(remainingExperience);
+  }
+
+  /** Counts bottles of the given experience against the current split in denomination mode. */
+  private void consumeRemainingExperience(int experience, int bottles) {
+    if (denominations) {
+      remainingExperience -= experience * bottles;
+      if (remainingExperience <= 0) {
+        remainingExperience = bottlingExperience;
+      }
+    }
+  }
+
+  /**
+   * Recomputes the result from the bottling experience, the presence of a glass bottle and whether
+   * the source has enough experience. The result stack is only rebuilt when that outcome differs
+   * from what the result slot currently holds.
+   */
   private void updateResult() {
-    if (bottlingExperience > 0
-        && !input.getItem(0).isEmpty()
-        && experienceSource.getTotalExperience() >= bottlingExperience) {
+    int experience = getNextBottleExperience();
+    if (input.getItem(0).isEmpty() || experienceSource.getTotalExperience() < experience) {
+      experience = 0;
+    }
+    if (experience == resultExperience && (experience > 0) != result.getItem(0).isEmpty()) {
+      return;
+    }
+    resultExperience = experience;
+    resultRevision++;
+    if (experience > 0) {
       ItemStack bottledExperience = new ItemStack(Items.BOTTLED_EXPERIENCE);
-      BottledExperienceComponent.setExperienceValue(bottledExperience, bottlingExperience);
-      resultExperience = bottlingExperience;
+      BottledExperienceComponent.setExperienceValue(bottledExperience, experience);
       result.setItem(0, bottledExperience);
     } else {
-      resultExperience = 0;
       result.setItem(0, ItemStack.EMPTY);
     }
-    broadcastChanges();
   }
 
   @Environment(EnvType.CLIENT)
@@ -178,15 +324,278 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
     return experienceSource.getTotalExperience();
   }
 
+  public int getBottlingExperience() {
+    return bottlingExperience;
+  }
+
+  /** Returns whether {@link #SWITCH_SOURCE_BUTTON} switches the menu to another source. */
+  @Environment(EnvType.CLIENT)
+  public boolean canSwitchSource() {
+    return sourceSwitchable;
+  }
+
+  /** Returns a counter that is incremented every time the server updates the source state. */
+  @Environment(EnvType.CLIENT)
+  public int getSourceRevision() {
+    return sourceRevision;
+  }
+
+  /**
+   * Reflects the total experience of the source sent by the server.
+   *
+   * @param totalExperience The total experience of the source on the server.
+   * @param remainingExperience What is left of the current denomination split on the server.
+   * @param acknowledgedSequence The last prediction sequence number the total includes.
+   */
+  @Environment(EnvType.CLIENT)
+  public void setSourceExperience(
+      long totalExperience, int remainingExperience, int acknowledgedSequence) {
+    if (experienceSource instanceof ExperienceSource.Client client) {
+      client.acknowledge(totalExperience, acknowledgedSequence);
+      // Predictions assume room for every bottle, so take the server's split once they are all
+      // acknowledged.
+      if (denominations
+          && !client.hasPredictions()
+          && remainingExperience > 0
+          && remainingExperience <= bottlingExperience) {
+        this.remainingExperience = remainingExperience;
+      }
+      updateResult();
+      sourceRevision++;
+    }
+  }
+
+  /**
+   * Starts a predicted operation. The experience the client removes until the next call is tagged
+   * with the returned sequence number, which must be sent along with the request to the server.
+   */
+  @Environment(EnvType.CLIENT)
+  public int beginPrediction() {
+    int sequence = ++predictionSequence;
+    if (experienceSource instanceof ExperienceSource.Client client) {
+      client.beginPrediction(sequence);
+    }
+    return sequence;
+  }
+
+  /**
+   * Predicts the experience removed by bulk bottling. The items are left to the server.
+   *
+   * @return {@code true} if any experience is predicted to be removed.
+   */
+  @Environment(EnvType.CLIENT)
+  public boolean predictBottleInBulk(int count) {
+    if (bottleInBatches(count, true) <= 0) {
+      return false;
+    }
+    sourceRevision++;
+    return true;
+  }
+
+  /** Drops stale predictions. Called every tick while the screen is open. */
+  @Environment(EnvType.CLIENT)
+  public void tickPredictions() {
+    if (experienceSource instanceof ExperienceSource.Client client
+        && client.expirePredictions()) {
+      updateResult();
+      sourceRevision++;
+    }
+  }
+
+  /**
+   * Sends the total experience of the source to the client if it, the denomination split or the
+   * acknowledged sequence number has changed since last time. A source that notifies its menus is
+   * only read again after it has notified.
+   */
+  private void syncSourceExperience() {
+    if (!(player instanceof ServerPlayer serverPlayer)) {
+      return;
+    }
+    boolean stateSynced =
+        acknowledgedSequence == syncedSequence
+            && (!denominations || remainingExperience == syncedRemainingExperience);
+    if (sourceNotifies && !sourceChanged && stateSynced) {
+      return;
+    }
+    sourceChanged = false;
+    long totalExperience = experienceSource.getTotalExperience();
+    if (totalExperience == syncedSourceExperience && stateSynced) {
+      return;
+    }
+    syncedSourceExperience = totalExperience;
+    syncedRemainingExperience = remainingExperience;
+    syncedSequence = acknowledgedSequence;
+    updateResult();
+    ServerPlayNetworking.send(
+        serverPlayer,
+        new ExperienceSourcePacket(
+            containerId, totalExperience, remainingExperience, acknowledgedSequence));
+  }
+
   public void setBottlingExperience(int value) {
     bottlingExperience = value;
+    remainingExperience = value;
     updateResult();
   }
 
+  /**
+   * Records the experience value requested by the client. Only the latest request is applied, the
+   * next time the menu is clicked or its changes are broadcast.
+   */
+  public void requestBottlingExperience(int value) {
+    requestedBottlingExperience = value;
+  }
+
+  /**
+   * Records the experience value requested by the client together with the sequence number of the
+   * operation the client predicted. The sequence number is acknowledged once the click or bulk
+   * bottling that follows has been handled. Sequence numbers that do not move forward are ignored.
+   */
+  public void requestBottlingExperience(int value, int sequence) {
+    requestBottlingExperience(value);
+    if (sequence - requestedSequence > 0 && sequence - acknowledgedSequence > 0) {
+      requestedSequence = sequence;
+      requestedSequenceAged = false;
+    }
+  }
+
+  /** Acknowledges the requested sequence number, after the operation it tags has been handled. */
+  public void acknowledgeRequest() {
+    acknowledgedSequence = requestedSequence;
+  }
+
+  /**
+   * Bottles up to {@code count} bottles of the current bottling experience in one go and moves them
+   * into the player's inventory. The experience for all of them is removed at once. In
+   * denomination mode this is done once per denomination.
+   *
+   * @return The number of bottles made.
+   */
+  public int bottleInBulk(Player player, int count) {
+    BulkBottlingEvent event = new BulkBottlingEvent();
+    event.begin();
+    int revision = resultRevision;
+    applyRequestedBottlingExperience();
+    int bottled = bottleInBatches(count, false);
+    if (event.shouldCommit()) {
+      event.requestedBottles = count;
+      event.bottles = bottled;
+      event.bottlingExperience = bottlingExperience;
+      event.playerIdHash = player.getUUID().hashCode();
+      event.recomputed = resultRevision != revision;
+      event.commit();
+    }
+    return bottled;
+  }
+
+  /**
+   * Bottles in batches of bottles with the same experience. When {@code simulate} is set, only the
+   * experience is removed and the player's inventory is assumed to have room for every bottle.
+   */
+  private int bottleInBatches(int count, boolean simulate) {
+    ItemStack glassBottles = input.getItem(0);
+    int limit = Math.min(count, glassBottles.getCount());
+    boolean creative = player.isCreative();
+    int bottled = 0;
+    while (bottled < limit) {
+      int experience = getNextBottleExperience();
+      if (experience <= 0) {
+        break;
+      }
+      int bottles = limit - bottled;
+      if (denominations) {
+        bottles = Math.min(bottles, remainingExperience / experience);
+      }
+      if (!creative) {
+        bottles = (int) Math.min(bottles, experienceSource.getTotalExperience() / experience);
+      }
+      if (bottles <= 0) {
+        break;
+      }
+
+      int moved = bottles;
+      if (!simulate) {
+        ItemStack bottledExperience = new ItemStack(Items.BOTTLED_EXPERIENCE, bottles);
+        BottledExperienceComponent.setExperienceValue(bottledExperience, experience);
+        moveItemStackTo(bottledExperience, INVENTORY_START, slots.size(), true);
+        moved -= bottledExperience.getCount();
+      }
+      if (moved > 0 && !creative) {
+        if (!simulate) {
+          glassBottles.shrink(moved);
+        }
+        experienceSource.removeExperience((long) moved * experience);
+      }
+      if (moved > 0 && !simulate) {
+        ExperienceAuditLog.record(
+            creative ? AuditEventType.CREATIVE_BOTTLE : AuditEventType.BOTTLE,
+            experienceSource.getAuditSource(),
+            player,
+            (long) moved * experience,
+            moved);
+      }
+      consumeRemainingExperience(experience, moved);
+      bottled += moved;
+      if (moved < bottles) {
+        break;
+      }
+    }
+    updateResult();
+    return bottled;
+  }
+
+  private void applyRequestedBottlingExperience() {
+    if (requestedBottlingExperience >= 0) {
+      int value = requestedBottlingExperience;
+      requestedBottlingExperience = -1;
+      if (value != bottlingExperience) {
+        setBottlingExperience(value);
+      }
+    }
+  }
+
+  @Override
+  public void clicked(int slotIndex, int button, ClickType clickType, Player player) {
+    applyRequestedBottlingExperience();
+    super.clicked(slotIndex, button, clickType, player);
+    acknowledgeRequest();
+  }
+
+  @Override
+  public void broadcastChanges() {
+    applyRequestedBottlingExperience();
+    if (requestedSequence != acknowledgedSequence) {
+      // Acknowledge a sequence number whose click never came, but only one tick later, so that a
+      // click still waiting behind it in the same batch of packets is not overtaken.
+      if (requestedSequenceAged) {
+        acknowledgeRequest();
+      } else {
+        requestedSequenceAged = true;
+      }
+    }
+    syncSourceExperience();
+    super.broadcastChanges();
+  }
+
+  @Override
+  public void broadcastFullState() {
+    syncedSourceExperience = -1;
+    sourceChanged = true;
+    syncSourceExperience();
+    super.broadcastFullState();
+  }
+
   @Override
   public void removed(Player player) {
     super.removed(player);
-    experienceSource.stopOpen(player);
+    if (!player.level().isClientSide()) {
+      applyRequestedBottlingExperience();
+      player.setAttached(AttachmentTypes.BOTTLING_EXPERIENCE, bottlingExperience);
+      if (bottlingExperience != openedBottlingExperience) {
+        experienceSource.onBottlingExperienceChanged(bottlingExperience);
+      }
+      experienceSource.onMenuClosed(sourceListener);
+    }
     clearContainer(player, input);
   }
 
@@ -195,10 +604,26 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
     return experienceSource.stillValid(player);
   }
 
+  /**
+   * Reopens the menu on the alternative of its source. The glass bottles in the input go back to
+   * the player when this menu is closed, as usual.
+   */
+  @Override
+  public boolean clickMenuButton(Player player, int id) {
+    if (id == SWITCH_SOURCE_BUTTON && player instanceof ServerPlayer) {
+      ExperienceSource alternative = experienceSource.getAlternative();
+      if (alternative != null) {
+        player.openMenu(createMenuProvider(user -> alternative));
+      }
+    }
+    // This menu is closed by now, so there is nothing to broadcast.
+    return false;
+  }
+
   @Override
   public void slotsChanged(Container inventory) {
     super.slotsChanged(inventory);
-    if (inventory == input || inventory == result || inventory == experienceSource) {
+    if (inventory == input) {
       updateResult();
     }
   }
@@ -211,16 +636,15 @@ public class ExperienceBottlerScreenHandler extends AbstractContainerMenu {
       ItemStack stackInSlot = slot.getItem();
       stack = stackInSlot.copy();
       if (slot.container == input) {
-        if (!moveItemStackTo(stackInSlot, 3, slots.size(), true)) {
+        if (!moveItemStackTo(stackInSlot, INVENTORY_START, slots.size(), true)) {
           return ItemStack.EMPTY;
         }
       } else if (slot.container == result) {
-        if (slot instanceof ResultSlot resultSlot) {
-          resultSlot.prepareTake();
-        }
-        if (!moveItemStackTo(stackInSlot, 3, slots.size(), true)) {
-          return ItemStack.EMPTY;
-        }
+        // Bottle as many as possible at once rather than one bottle per call. The bulk pass has
+        // moved everything it can, so the click must not call this again: in creative mode the
+        // result stays the same and would be bottled until the inventory is full.
+        bottleInBulk(player, Integer.MAX_VALUE);
+        return ItemStack.EMPTY;
       } else if (!moveItemStackTo(stackInSlot, 0, 1, false)) {
         return ItemStack.EMPTY;
       }
@@ -24,181 +24,331 @@
 
 package net.eidee.minecraft.experiencebottler.screen;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.eidee.minecraft.experiencebottler.annotation.MethodsReturnNonnullByDefault;
-import net.eidee.minecraft.experiencebottler.block.Blocks;
+import net.eidee.minecraft.experiencebottler.audit.AuditSource;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBank;
+import net.eidee.minecraft.experiencebottler.bank.ExperienceBanks;
+import net.eidee.minecraft.experiencebottler.block.entity.ExperienceBottlerBlockEntity;
+import net.eidee.minecraft.experiencebottler.util.ExperienceBuffer;
 import net.eidee.minecraft.experiencebottler.util.ExperienceUtil;
-import net.minecraft.core.component.DataComponents;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
-import net.minecraft.world.Container;
-import net.minecraft.world.entity.ContainerUser;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.ContainerLevelAccess;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.component.CustomData;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Where the experience bottled by {@link ExperienceBottlerScreenHandler} comes from. On the server
+ * it is backed by the real experience; on the client it holds the values sent by the server.
+ */
 @ParametersAreNonnullByDefault
 @MethodsReturnNonnullByDefault
-public abstract class ExperienceSource implements Container {
-  private ItemStack stack;
+public abstract class ExperienceSource {
+  protected ExperienceSource() {}
 
-  protected ExperienceSource(ItemStack stack) {
-    this.stack = stack;
+  public static Client forClient(Component sourceName, long totalExperience) {
+    Client client = new Client();
+    client.setSourceName(sourceName);
+    client.confirmedExperience = totalExperience;
+    return client;
   }
 
-  public static ExperienceSource forClient() {
-    return new ExperienceSource(new ItemStack(net.minecraft.world.level.block.Blocks.GLASS)) {
-      private String sourceName = "";
-      private long totalExperience;
-
+  public static ExperienceSource fromPlayer(Player player, ContainerLevelAccess context) {
+    BlockUseCheck useCheck = new BlockUseCheck(findBlockEntity(context));
+    return new ExperienceSource() {
       @Override
       public Component getSourceName() {
-        return Component.literal(sourceName);
+        return Component.translatable("gui.experiencebottler.label.experience_source.player");
       }
 
       @Override
       public long getTotalExperience() {
-        return totalExperience;
+        return ExperienceUtil.getTotalExperience(player);
       }
 
       @Override
-      public void removeExperience(int experience) {
-        totalExperience -= experience;
+      public void removeExperience(long experience) {
+        ExperienceBuffer.add(player, -experience);
       }
 
       @Override
-      public void setChanged() {
-        CompoundTag nbt =
-            getItem(0)
-                .getComponents()
-                .getOrDefault(DataComponents.CUSTOM_DATA, CustomData.EMPTY)
-                .copyTag();
-        sourceName = nbt.getString("SourceName").orElse("");
-        totalExperience = nbt.getLong("TotalExperience").orElse(0L);
+      public boolean stillValid(Player user) {
+        return player.getUUID().equals(user.getUUID()) && useCheck.stillValid(user);
       }
 
+      @Nullable
       @Override
-      public boolean stillValid(Player player) {
-        return true;
+      public ExperienceSource getAlternative() {
+        ExperienceBank bank = ExperienceBanks.get();
+        return bank != null ? fromBank(player, context, bank) : null;
       }
     };
   }
 
-  public static ExperienceSource fromPlayer(Player player, ContainerLevelAccess context) {
-    return new ExperienceSource(new ItemStack(net.minecraft.world.level.block.Blocks.GLASS)) {
+  /** Returns the balance of the player in the experience bank as a source. */
+  public static ExperienceSource fromBank(
+      Player player, ContainerLevelAccess context, ExperienceBank bank) {
+    BlockUseCheck useCheck = new BlockUseCheck(findBlockEntity(context));
+    return new ExperienceSource() {
       @Override
       public Component getSourceName() {
-        return Component.translatable("gui.experiencebottler.label.experience_source.player");
+        return Component.translatable("gui.experiencebottler.label.experience_source.bank");
       }
 
       @Override
       public long getTotalExperience() {
-        return ExperienceUtil.getTotalExperience(player);
+        return bank.getBalance(player.getUUID());
       }
 
       @Override
-      public void removeExperience(int experience) {
-        ExperienceUtil.addExperience(player, -experience);
-        setChanged();
+      public void removeExperience(long experience) {
+        bank.withdraw(player.getUUID(), experience);
       }
 
       @Override
-      public void setChanged() {
-        CustomData.update(
-            DataComponents.CUSTOM_DATA,
-            getItem(0),
-            (nbt) -> {
-              nbt.putString("SourceName", getSourceName().getString());
-              nbt.putLong("TotalExperience", getTotalExperience());
-            });
+      public boolean stillValid(Player user) {
+        return player.getUUID().equals(user.getUUID()) && useCheck.stillValid(user);
+      }
+
+      @Override
+      public AuditSource getAuditSource() {
+        return AuditSource.BANK;
+      }
+
+      @Override
+      public ExperienceSource getAlternative() {
+        return fromPlayer(player, context);
+      }
+    };
+  }
+
+  /** Returns the experience tank of the bottler as a source. */
+  public static ExperienceSource fromBlockEntity(ExperienceBottlerBlockEntity blockEntity) {
+    BlockUseCheck useCheck = new BlockUseCheck(blockEntity);
+    return new ExperienceSource() {
+      @Override
+      public Component getSourceName() {
+        return Component.translatable("gui.experiencebottler.label.experience_source.tank");
+      }
+
+      @Override
+      public long getTotalExperience() {
+        return blockEntity.getStoredExperience();
+      }
+
+      @Override
+      public void removeExperience(long experience) {
+        blockEntity.removeExperience(experience);
       }
 
       @Override
       public boolean stillValid(Player user) {
-        return player.getUUID().equals(user.getUUID())
-            && context.evaluate(
-                (world, pos) ->
-                    world.getBlockState(pos).is(Blocks.EXPERIENCE_BOTTLER)
-                        && player.distanceToSqr(
-                                pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5)
-                            <= 64.0,
-                false);
+        return useCheck.stillValid(user);
+      }
+
+      @Override
+      public AuditSource getAuditSource() {
+        return AuditSource.TANK;
+      }
+
+      @Override
+      public boolean addListener(Runnable listener) {
+        blockEntity.addViewer(listener);
+        return true;
+      }
+
+      @Override
+      public void onBottlingExperienceChanged(int bottlingExperience) {
+        blockEntity.setBottlingExperience(bottlingExperience);
+      }
+
+      @Override
+      public void onMenuClosed(Runnable listener) {
+        blockEntity.removeViewer(listener);
       }
     };
   }
 
+  @Nullable
+  private static BlockEntity findBlockEntity(ContainerLevelAccess context) {
+    // ContainerLevelAccess does not accept a null result, hence the nested Optional.
+    return context
+        .evaluate((world, pos) -> Optional.ofNullable(world.getBlockEntity(pos)))
+        .flatMap(optional -> optional)
+        .filter(ExperienceBottlerBlockEntity.class::isInstance)
+        .orElse(null);
+  }
+
   public abstract Component getSourceName();
 
   public abstract long getTotalExperience();
 
-  public abstract void removeExperience(int experience);
+  public abstract void removeExperience(long experience);
+
+  public abstract boolean stillValid(Player player);
 
-  @Override
-  public int getContainerSize() {
-    return 1;
+  /** Returns the source recorded in the audit log for bottles filled from this source. */
+  public AuditSource getAuditSource() {
+    return AuditSource.PLAYER;
   }
 
-  @Override
-  public boolean isEmpty() {
-    return stack.isEmpty();
+  /**
+   * Returns the source a menu on this source switches to when its player asks for it, or {@code
+   * null} if there is none. Only called on the server.
+   */
+  @Nullable
+  public ExperienceSource getAlternative() {
+    return null;
   }
 
-  @Override
-  public ItemStack getItem(int slot) {
-    return stack;
+  /**
+   * Registers a callback run on the server whenever the total may have changed, so that a source
+   * shared by several menus notifies all of them at once.
+   *
+   * @return {@code false} if the source cannot notify, in which case the menu has to poll it.
+   */
+  public boolean addListener(Runnable listener) {
+    return false;
   }
 
-  @Override
-  public ItemStack removeItem(int slot, int amount) {
-    if (stack.isEmpty() || amount <= 0) {
-      return ItemStack.EMPTY;
+  /**
+   * Called on the server when a menu using this source is closed after its player changed the
+   * bottling experience. Menus whose player left it alone do not call this, so they do not
+   * overwrite a value chosen by another viewer.
+   */
+  public void onBottlingExperienceChanged(int bottlingExperience) {}
+
+  /**
+   * Called on the server when a menu using this source is closed, with the listener the menu
+   * passed to {@link #addListener(Runnable)}.
+   */
+  public void onMenuClosed(Runnable listener) {}
+
+  /**
+   * Checks whether a player can still use the bottler block without looking the block up every
+   * tick. A change of the block removes its block entity, so the block is only checked through
+   * {@link BlockEntity#isRemoved()}. The reach is checked the same way as {@link
+   * net.minecraft.world.Container#stillValidBlockEntity}, but only again after the player moves.
+   */
+  private static final class BlockUseCheck {
+    private static final double BUFFER = 4.0;
+
+    @Nullable private final BlockEntity blockEntity;
+    @Nullable private Vec3 checkedPosition;
+    private boolean inRange;
+
+    private BlockUseCheck(@Nullable BlockEntity blockEntity) {
+      this.blockEntity = blockEntity;
     }
-    ItemStack result = stack.split(amount);
-    setChanged();
-    return result;
-  }
 
-  @Override
-  public ItemStack removeItemNoUpdate(int slot) {
-    ItemStack result = stack;
-    stack = ItemStack.EMPTY;
-    return result;
+    private boolean stillValid(Player player) {
+      if (blockEntity == null || blockEntity.isRemoved()) {
+        return false;
+      }
+      Vec3 position = player.position();
+      if (!position.equals(checkedPosition)) {
+        checkedPosition = position;
+        inRange = player.canInteractWithBlock(blockEntity.getBlockPos(), BUFFER);
+      }
+      return inRange;
+    }
   }
 
-  @Override
-  public void setItem(int slot, ItemStack stack) {
-    this.stack = stack;
-    if (!stack.isEmpty() && stack.getCount() > getMaxStackSize()) {
-      stack.setCount(getMaxStackSize());
+  /**
+   * The experience source of a menu on the client, kept up to date by the server. Experience
+   * removed on the client is recorded as a prediction tagged with a sequence number, and stays
+   * subtracted from the total the server confirmed until the server acknowledges that number.
+   */
+  public static class Client extends ExperienceSource {
+    /** Predictions the server has not acknowledged within this time are dropped. */
+    private static final long PREDICTION_TIMEOUT_NANOS = 2_000_000_000L;
+
+    private final Deque<Prediction> predictions = new ArrayDeque<>();
+    private Component sourceName = Component.empty();
+    private long confirmedExperience;
+    private long predictedExperience;
+    private int sequence;
+
+    private record Prediction(int sequence, long experience, long time) {}
+
+    private Client() {}
+
+    @Override
+    public Component getSourceName() {
+      return sourceName;
     }
-    setChanged();
-  }
 
-  @Override
-  public void clearContent() {
-    removeItemNoUpdate(0);
-    setChanged();
-  }
+    public void setSourceName(Component sourceName) {
+      this.sourceName = sourceName;
+    }
 
-  @Override
-  public void startOpen(ContainerUser user) {
-    setChanged();
-  }
+    @Override
+    public long getTotalExperience() {
+      return confirmedExperience - predictedExperience;
+    }
 
-  @Override
-  public void stopOpen(ContainerUser user) {
-    clearContent();
-  }
+    /** Tags the experience removed from now on with the given sequence number. */
+    public void beginPrediction(int sequence) {
+      this.sequence = sequence;
+    }
 
-  @Override
-  public String toString() {
-    if (!stack.isEmpty()) {
-      CustomData component = stack.getComponents().get(DataComponents.CUSTOM_DATA);
-      if (component != null) {
-        return component.copyTag().toString();
+    /**
+     * Applies the total sent by the server. Predictions up to the acknowledged sequence number are
+     * included in that total and are dropped; the others are applied on top of it again.
+     */
+    public void acknowledge(long totalExperience, int acknowledgedSequence) {
+      confirmedExperience = totalExperience;
+      while (!predictions.isEmpty()
+          && predictions.peekFirst().sequence() - acknowledgedSequence <= 0) {
+        predictedExperience -= predictions.pollFirst().experience();
       }
     }
-    return "{}";
+
+    /** Returns whether any removal is still waiting to be acknowledged by the server. */
+    public boolean hasPredictions() {
+      return !predictions.isEmpty();
+    }
+
+    /**
+     * Drops the predictions the server has not acknowledged in time, for example because their
+     * packets were rate limited.
+     *
+     * @return {@code true} if any prediction was dropped.
+     */
+    public boolean expirePredictions() {
+      return expirePredictions(System.nanoTime());
+    }
+
+    /** Drops the predictions not acknowledged in time, as of the given time in nanoseconds. */
+    boolean expirePredictions(long now) {
+      boolean expired = false;
+      while (!predictions.isEmpty()
+          && now - predictions.peekFirst().time() > PREDICTION_TIMEOUT_NANOS) {
+        predictedExperience -= predictions.pollFirst().experience();
+        expired = true;
+      }
+      return expired;
+    }
+
+    @Override
+    public void removeExperience(long experience) {
+      removeExperience(experience, System.nanoTime());
+    }
+
+    /** Predicts the removal of experience at the given time in nanoseconds. */
+    void removeExperience(long experience, long now) {
+      predictions.addLast(new Prediction(sequence, experience, now));
+      predictedExperience += experience;
+    }
+
+    @Override
+    public boolean stillValid(Player player) {
+      return true;
+    }
   }
 }
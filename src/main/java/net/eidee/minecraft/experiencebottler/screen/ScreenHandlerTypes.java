@@ -25,8 +25,6 @@
 package net.eidee.minecraft.experiencebottler.screen;
 
 import net.fabricmc.fabric.api.menu.v1.ExtendedMenuType;
-import net.minecraft.network.codec.StreamCodec;
-import net.minecraft.util.Unit;
 import net.minecraft.world.inventory.MenuType;
 
 /** Defines the screen handlers of the Experience Bottler. */
@@ -36,8 +34,9 @@ public class ScreenHandlerTypes {
   static {
     EXPERIENCE_BOTTLER =
         new ExtendedMenuType<>(
-            (syncId, inventory, unused) -> new ExperienceBottlerScreenHandler(syncId, inventory),
-            StreamCodec.unit(Unit.INSTANCE));
+            (syncId, inventory, data) ->
+                new ExperienceBottlerScreenHandler(syncId, inventory, data),
+            ExperienceBottlerOpeningData.CODEC);
   }
 
   private ScreenHandlerTypes() {}
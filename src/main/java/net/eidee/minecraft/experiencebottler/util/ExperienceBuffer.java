@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 EideeHi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.eidee.minecraft.experiencebottler.util;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMaps;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Applies experience changes to server players immediately and coalesces their side effects per
+ * tick. The player's fields are always up to date, so vanilla code running later in the same tick
+ * (enchanting, anvils, saving) sees the real balance. Vanilla sends at most one experience packet
+ * per player tick, and the level-up sound is played once at the end of the tick for the net gain.
+ */
+public class ExperienceBuffer {
+  /** The level each player had before its first change of the current tick. */
+  private static final Reference2IntOpenHashMap<ServerPlayer> LEVEL_BEFORE =
+      new Reference2IntOpenHashMap<>();
+
+  private ExperienceBuffer() {}
+
+  /**
+   * Gives the player experience now. A negative value removes experience. For server players the
+   * level-up sound is deferred to the end of the tick.
+   */
+  public static void add(Player player, long experience) {
+    if (experience == 0) {
+      return;
+    }
+    if (player instanceof ServerPlayer serverPlayer) {
+      LEVEL_BEFORE.putIfAbsent(serverPlayer, serverPlayer.experienceLevel);
+      ExperienceUtil.addExperienceSilently(serverPlayer, experience);
+    } else {
+      ExperienceUtil.addExperience(player, experience);
+    }
+  }
+
+  /** Plays the level-up sound for the players changed this tick. Called at the end of each tick. */
+  public static void flush() {
+    if (LEVEL_BEFORE.isEmpty()) {
+      return;
+    }
+    for (Reference2IntMap.Entry<ServerPlayer> entry :
+        Reference2IntMaps.fastIterable(LEVEL_BEFORE)) {
+      ServerPlayer player = entry.getKey();
+      if (!player.isRemoved()) {
+        ExperienceUtil.playLevelUpSound(player, entry.getIntValue(), player.experienceLevel);
+      }
+    }
+    LEVEL_BEFORE.clear();
+  }
+
+  /** Forgets the player, e.g. when it disconnects. Its experience has already been applied. */
+  public static void remove(ServerPlayer player) {
+    LEVEL_BEFORE.removeInt(player);
+  }
+}
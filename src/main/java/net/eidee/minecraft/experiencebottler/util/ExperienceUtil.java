@@ -24,6 +24,7 @@
 
 package net.eidee.minecraft.experiencebottler.util;
 
+import net.minecraft.sounds.SoundEvents;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.player.Player;
 
@@ -33,22 +34,11 @@ public class ExperienceUtil {
   private static final int TOTAL_EXP_LV_15 = 315;
   private static final int MAX_EXPERIENCE = Integer.MAX_VALUE;
   private static final int MAX_SAFE_LEVEL = 21863; // Highest level whose total XP fits in int
+  private static final LevelCurve CURVE =
+      LevelCurve.byName(System.getProperty("experiencebottler.levelCurve"));
 
   private ExperienceUtil() {}
 
-  private static long totalExperienceAtLevel(long level) {
-    // Closed-form totals per vanilla XP curve. Caller must ensure 0 <= level <= MAX_SAFE_LEVEL.
-    // Segment 0-14:  T(L) = L(L+6)           derived from sum of (7+2i) for i=0..L-1
-    // Segment 15-29: T(L) = (5L²-81L+720)/2  derived from T(15) + sum of (37+5(i-15)) for i=15..L-1
-    // Segment 30+:   T(L) = (9L²-325L+4440)/2 derived from T(30) + sum of (112+9(i-30)) for
-    // i=30..L-1
-    return level < 15
-        ? level * (level + 6)
-        : level < 30
-            ? (5L * level * level - 81L * level + 720L) >> 1
-            : (9L * level * level - 325L * level + 4440L) >> 1;
-  }
-
   /**
    * Calculates and returns the experience required from the specified level to the next level.
    *
@@ -73,35 +63,7 @@ public class ExperienceUtil {
     // Clamp input to valid XP range; return max level if at int cap.
     if (experience <= 0) return 0;
     if (experience >= MAX_EXPERIENCE) return MAX_SAFE_LEVEL;
-
-    // Analytical inversion of piecewise quadratic/linear total XP formulas.
-    // Floating-point sqrt may introduce ±1 error, corrected below.
-    int level;
-    if (experience < TOTAL_EXP_LV_15) {
-      // Invert L(L+6)=xp => L = floor(sqrt(xp+9) - 3)
-      level = (int) (Math.sqrt(experience + 9.0) - 3.0);
-    } else if (experience < TOTAL_EXP_LV_30) {
-      // Invert (5L²-81L+720)/2=xp => L = floor((81 + sqrt(40*xp - 7839)) / 10)
-      level = (int) ((81.0 + Math.sqrt(40.0 * experience - 7839.0)) * 0.1);
-    } else {
-      // Invert (9L²-325L+4440)/2=xp => L = floor((325 + sqrt(72*xp - 54215)) / 18)
-      level = (int) ((325.0 + Math.sqrt(72.0 * experience - 54215.0)) / 18.0);
-    }
-
-    // Clamp then correct for floating-point rounding (at most ±1 adjustment).
-    if (level < 0) level = 0;
-    else if (level > MAX_SAFE_LEVEL) level = MAX_SAFE_LEVEL;
-
-    long total = totalExperienceAtLevel(level);
-    if (total > experience) {
-      // Overshot: step back once.
-      return level > 0 ? level - 1 : 0;
-    }
-    // Check if next level is reachable.
-    if (level < MAX_SAFE_LEVEL && totalExperienceAtLevel(level + 1) <= experience) {
-      return level + 1;
-    }
-    return level;
+    return CURVE.levelFromTotalExperience((int) experience);
   }
 
   /**
@@ -113,8 +75,8 @@ public class ExperienceUtil {
   public static long getTotalExperienceToReachLevel(long level, float progress) {
     // Returns total XP at given level + fractional progress toward next level.
     if (level <= 0) return progress > 0f ? Math.round(7L * Mth.clamp(progress, 0f, 1f)) : 0L;
-    long clampedLevel = level > MAX_SAFE_LEVEL ? MAX_SAFE_LEVEL : level;
-    long base = totalExperienceAtLevel(clampedLevel);
+    int clampedLevel = level > MAX_SAFE_LEVEL ? MAX_SAFE_LEVEL : (int) level;
+    long base = CURVE.totalExperienceAtLevel(clampedLevel);
     if (progress <= 0f) return base;
     float clampedProgress = progress > 1f ? 1f : progress;
     long extra = Math.round(getNextLevelExperience(clampedLevel) * clampedProgress);
@@ -127,59 +89,257 @@ public class ExperienceUtil {
     return getTotalExperienceToReachLevel(player.experienceLevel, player.experienceProgress);
   }
 
-  /** Gives the player experience. A negative integer removes experience from the player. */
+  /**
+   * Gives the player experience immediately. A negative integer removes experience from the player.
+   * Prefer {@link ExperienceBuffer#add(Player, long)} for server players, which plays the level-up
+   * sound once per tick for all changes.
+   */
   public static void addExperience(Player player, int experience) {
+    addExperience(holderOf(player, true), experience);
+  }
+
+  /**
+   * Gives the player experience immediately. A negative value removes experience from the player.
+   */
+  public static void addExperience(Player player, long experience) {
+    addExperience(holderOf(player, true), experience);
+  }
+
+  /** Gives the player experience immediately without playing the level-up sound. */
+  static void addExperienceSilently(Player player, long experience) {
+    addExperience(holderOf(player, false), experience);
+  }
+
+  /** Plays the same sound as Player#giveExperienceLevels if a multiple of five was passed. */
+  static void playLevelUpSound(Player player, int oldLevel, int newLevel) {
+    if (newLevel / 5 > oldLevel / 5) {
+      float volume = newLevel > 30 ? 1.0F : newLevel / 30.0F;
+      player
+          .level()
+          .playSound(
+              null,
+              player.getX(),
+              player.getY(),
+              player.getZ(),
+              SoundEvents.PLAYER_LEVELUP,
+              player.getSoundSource(),
+              volume * 0.75F,
+              1.0F);
+    }
+  }
+
+  private static ExperienceHolder holderOf(Player player, boolean levelUpSound) {
+    return new ExperienceHolder() {
+      @Override
+      public int getExperienceLevel() {
+        return player.experienceLevel;
+      }
+
+      @Override
+      public void setExperienceLevel(int level) {
+        player.experienceLevel = level;
+      }
+
+      @Override
+      public float getExperienceProgress() {
+        return player.experienceProgress;
+      }
+
+      @Override
+      public void setExperienceProgress(float progress) {
+        player.experienceProgress = progress;
+      }
+
+      @Override
+      public int getTotalExperience() {
+        return player.totalExperience;
+      }
+
+      @Override
+      public void setTotalExperience(int totalExperience) {
+        player.totalExperience = totalExperience;
+      }
+
+      @Override
+      public int getScore() {
+        return player.getScore();
+      }
+
+      @Override
+      public void setScore(int score) {
+        player.setScore(score);
+      }
+
+      @Override
+      public void onLevelUp(int oldLevel, int newLevel) {
+        // Played once for the whole gain.
+        if (levelUpSound) {
+          playLevelUpSound(player, oldLevel, newLevel);
+        }
+      }
+    };
+  }
+
+  static void addExperience(ExperienceHolder player, long experience) {
     if (experience == 0) {
       return;
     }
 
-    final int prevTotalExperience = player.totalExperience;
-    final long currentExperience = getTotalExperience(player);
-    final long newExperience = currentExperience + experience;
-
-    player.experienceLevel = 0;
-    player.experienceProgress = 0;
-    player.totalExperience = 0;
-
-    long total = currentExperience;
-    long limit = Math.abs((long) Integer.MIN_VALUE - player.getScore());
-    int score;
-    do {
-      score = (int) Math.min(Math.min(total, Integer.MAX_VALUE), limit);
-      player.increaseScore(-score);
-      limit -= score;
-      total -= score;
-    } while (total > 0 && limit > 0);
-
-    total = newExperience;
-    limit = (long) Integer.MAX_VALUE - player.getScore();
-    do {
-      score = (int) Math.min(Math.min(total, limit), Integer.MAX_VALUE);
-      player.increaseScore(score);
-      limit -= score;
-      total -= score;
-    } while (total > 0 && limit > 0);
+    final int prevLevel = player.getExperienceLevel();
+    final int prevTotalExperience = player.getTotalExperience();
+    final long currentExperience =
+        getTotalExperienceToReachLevel(prevLevel, player.getExperienceProgress());
+    final long newExperience = Mth.clamp(currentExperience + experience, 0L, MAX_EXPERIENCE);
+
+    // The score counts collected experience, so swap the old total for the new one. Each step
+    // saturates at the int bounds.
+    long score = Math.max((long) player.getScore() - currentExperience, Integer.MIN_VALUE);
+    score = Math.min(score + newExperience, Integer.MAX_VALUE);
 
     int level = getLevelFromTotalExperience(newExperience);
-    if (experience > 0 && level > 5) {
-      player.giveExperienceLevels(5);
-      level -= 5;
+    float progress =
+        (newExperience - CURVE.totalExperienceAtLevel(level))
+            / (float) getNextLevelExperience(level);
+
+    int totalExperience = (int) newExperience;
+    if (totalExperience == prevTotalExperience) {
+      // If totalExperience is not changed, synchronization packets will not be sent to the client,
+      // so change it here.
+      totalExperience--;
     }
 
-    player.experienceLevel += level;
-    player.experienceProgress =
-        (newExperience - getTotalExperienceToReachLevel(player.experienceLevel, 0))
-            / (float) getNextLevelExperience(player.experienceLevel);
-    if (player.experienceProgress == 1.0) {
-      ++player.experienceLevel;
-      player.experienceProgress = 0;
+    player.setExperienceLevel(level);
+    player.setExperienceProgress(progress);
+    player.setTotalExperience(totalExperience);
+    player.setScore((int) score);
+
+    if (level > prevLevel) {
+      player.onLevelUp(prevLevel, level);
     }
+  }
 
-    player.totalExperience = (int) Mth.clamp(newExperience, 0L, Integer.MAX_VALUE);
-    if (player.totalExperience == prevTotalExperience) {
-      // If totalExperience is not changed, synchronization packets will not be sent to the client,
-      // so change it here.
-      player.totalExperience--;
+  /**
+   * The experience fields of a player that {@link #addExperience(Player, int)} rewrites. Kept
+   * separate from {@link Player} so that the calculation can be driven without a world.
+   */
+  interface ExperienceHolder {
+    int getExperienceLevel();
+
+    void setExperienceLevel(int level);
+
+    float getExperienceProgress();
+
+    void setExperienceProgress(float progress);
+
+    int getTotalExperience();
+
+    void setTotalExperience(int totalExperience);
+
+    int getScore();
+
+    void setScore(int score);
+
+    /** Called after a gain has raised the level, to play the level-up effects once. */
+    void onLevelUp(int oldLevel, int newLevel);
+  }
+
+  /**
+   * Strategies for converting between levels and total experience. The strategy in use can be
+   * chosen with the {@code experiencebottler.levelCurve} system property; both produce the same
+   * results.
+   */
+  enum LevelCurve {
+    /** Evaluates the curve formulas and inverts them with a square root. */
+    ANALYTIC {
+      @Override
+      long totalExperienceAtLevel(int level) {
+        // Segment 0-14:  T(L) = L(L+6)           derived from sum of (7+2i) for i=0..L-1
+        // Segment 15-29: T(L) = (5L²-81L+720)/2  derived from T(15) + sum of (37+5(i-15)) for
+        // i=15..L-1
+        // Segment 30+:   T(L) = (9L²-325L+4440)/2 derived from T(30) + sum of (112+9(i-30)) for
+        // i=30..L-1
+        return level < 15
+            ? (long) level * (level + 6)
+            : level < 30
+                ? (5L * level * level - 81L * level + 720L) >> 1
+                : (9L * level * level - 325L * level + 4440L) >> 1;
+      }
+
+      @Override
+      int levelFromTotalExperience(int experience) {
+        // Analytical inversion of piecewise quadratic/linear total XP formulas.
+        // Floating-point sqrt may introduce ±1 error, corrected below.
+        int level;
+        if (experience < TOTAL_EXP_LV_15) {
+          // Invert L(L+6)=xp => L = floor(sqrt(xp+9) - 3)
+          level = (int) (Math.sqrt(experience + 9.0) - 3.0);
+        } else if (experience < TOTAL_EXP_LV_30) {
+          // Invert (5L²-81L+720)/2=xp => L = floor((81 + sqrt(40*xp - 7839)) / 10)
+          level = (int) ((81.0 + Math.sqrt(40.0 * experience - 7839.0)) * 0.1);
+        } else {
+          // Invert (9L²-325L+4440)/2=xp => L = floor((325 + sqrt(72*xp - 54215)) / 18)
+          level = (int) ((325.0 + Math.sqrt(72.0 * experience - 54215.0)) / 18.0);
+        }
+
+        // Clamp then correct for floating-point rounding (at most ±1 adjustment).
+        if (level < 0) level = 0;
+        else if (level > MAX_SAFE_LEVEL) level = MAX_SAFE_LEVEL;
+
+        long total = totalExperienceAtLevel(level);
+        if (total > experience) {
+          // Overshot: step back once.
+          return level > 0 ? level - 1 : 0;
+        }
+        // Check if next level is reachable.
+        if (level < MAX_SAFE_LEVEL && totalExperienceAtLevel(level + 1) <= experience) {
+          return level + 1;
+        }
+        return level;
+      }
+    },
+
+    /** Reads the totals from a precomputed table and inverts them with a binary search. */
+    TABLE {
+      @Override
+      long totalExperienceAtLevel(int level) {
+        return LevelTable.TOTALS[level];
+      }
+
+      @Override
+      int levelFromTotalExperience(int experience) {
+        // Finds the last level whose total does not exceed the experience. The loop runs a fixed
+        // number of times for the table size, and the select compiles to a conditional move.
+        int[] totals = LevelTable.TOTALS;
+        int level = 0;
+        int length = totals.length;
+        while (length > 1) {
+          int half = length >>> 1;
+          level = totals[level + half] <= experience ? level + half : level;
+          length -= half;
+        }
+        return level;
+      }
+    };
+
+    static LevelCurve byName(String name) {
+      return "analytic".equalsIgnoreCase(name) ? ANALYTIC : TABLE;
+    }
+
+    /** Returns the total experience at the start of a level. {@code level} must be 0-21863. */
+    abstract long totalExperienceAtLevel(int level);
+
+    /** Returns the level for a total experience. {@code experience} must be positive. */
+    abstract int levelFromTotalExperience(int experience);
+  }
+
+  /** Cumulative experience per level, built on first use of {@link LevelCurve#TABLE}. */
+  private static final class LevelTable {
+    private static final int[] TOTALS = new int[MAX_SAFE_LEVEL + 1];
+
+    static {
+      for (int level = 1; level <= MAX_SAFE_LEVEL; ++level) {
+        TOTALS[level] = TOTALS[level - 1] + (int) getNextLevelExperience(level - 1);
+      }
     }
   }
 }
@@ -0,0 +1,141 @@
+package net.eidee.minecraft.experiencebottler.audit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditLogToolTest {
+  private static final byte[] KEY = "audit log tool test key".getBytes(StandardCharsets.UTF_8);
+  private static final UUID PLAYER = new UUID(0x5850L, 1);
+  private static final UUID TRADER = new UUID(0x5850L, 2);
+
+  @TempDir Path directory;
+
+  private static void offer(
+      AuditRingBuffer buffer,
+      UUID player,
+      AuditEventType type,
+      AuditSource source,
+      long experience,
+      int bottles) {
+    buffer.offer(
+        0L,
+        player.getMostSignificantBits(),
+        player.getLeastSignificantBits(),
+        experience,
+        type,
+        source,
+        bottles);
+  }
+
+  private AuditLogWriter openWriter() throws Exception {
+    return new AuditLogWriter(directory, Long.MAX_VALUE, KEY);
+  }
+
+  private static void drain(AuditRingBuffer buffer, AuditLogWriter writer) throws Exception {
+    buffer.drain(writer::write);
+    writer.flush();
+  }
+
+  private String runTool() throws Exception {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.sorted().toList();
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    AuditLogTool.run(files, KEY, new PrintStream(output, true, StandardCharsets.UTF_8));
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void sumsUpEachPlayerBySource() throws Exception {
+    AuditRingBuffer buffer = new AuditRingBuffer(16);
+    offer(buffer, PLAYER, AuditEventType.BOTTLE, AuditSource.PLAYER, 70, 10);
+    offer(buffer, PLAYER, AuditEventType.BOTTLE, AuditSource.TANK, 30, 3);
+    offer(buffer, PLAYER, AuditEventType.DRINK, AuditSource.PLAYER, 40, 4);
+    offer(buffer, TRADER, AuditEventType.DEPOSIT, AuditSource.BANK, 25, 0);
+    offer(buffer, TRADER, AuditEventType.DRINK, AuditSource.PLAYER, 60, 6);
+    AuditLogWriter writer = openWriter();
+    drain(buffer, writer);
+    writer.close();
+
+    String report = runTool();
+    assertTrue(report.contains("5 records\tok"), report);
+    assertTrue(report.contains("  " + PLAYER + "\t70\t30\t0\t0\t13\t0\t40\t4\t-30\t[]"), report);
+    // Drinking bottles someone else filled is not flagged.
+    assertTrue(report.contains("  " + TRADER + "\t0\t0\t25\t0\t0\t0\t60\t6\t60\t[]"), report);
+    assertTrue(
+        report.contains("5 records, 0 dropped, 2 players: 70 debited, 0 minted, 100 drunk"),
+        report);
+    assertFalse(report.contains("More experience was drunk"), report);
+  }
+
+  @Test
+  void reportsBrokenMacChain() throws Exception {
+    AuditRingBuffer buffer = new AuditRingBuffer(16);
+    for (int i = 0; i < 3; i++) {
+      offer(buffer, PLAYER, AuditEventType.BOTTLE, AuditSource.PLAYER, 10, 1);
+    }
+    AuditLogWriter writer = openWriter();
+    drain(buffer, writer);
+    writer.close();
+
+    Path file;
+    try (Stream<Path> stream = Files.list(directory)) {
+      file = stream.findFirst().orElseThrow();
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    // The experience of the second record.
+    bytes[AuditLogFormat.HEADER_SIZE + AuditLogFormat.RECORD_SIZE + 31] ^= 1;
+    Files.write(file, bytes);
+
+    String report = runTool();
+    assertTrue(report.contains("MAC chain broken at record 1"), report);
+  }
+
+  @Test
+  void keepsSequenceAcrossRingBufferWraparound() throws Exception {
+    AuditRingBuffer buffer = new AuditRingBuffer(4);
+    AuditLogWriter writer = openWriter();
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 3; i++) {
+        offer(buffer, PLAYER, AuditEventType.DRINK, AuditSource.PLAYER, 1, 1);
+      }
+      drain(buffer, writer);
+    }
+    writer.close();
+
+    String report = runTool();
+    assertTrue(report.contains("30 records\tok"), report);
+    assertTrue(report.contains("  " + PLAYER + "\t0\t0\t0\t0\t0\t0\t30\t30\t30\t[]"), report);
+  }
+
+  @Test
+  void recordsGapForDroppedRecords() throws Exception {
+    AuditRingBuffer buffer = new AuditRingBuffer(4);
+    for (int i = 0; i < 6; i++) {
+      offer(buffer, PLAYER, AuditEventType.DRINK, AuditSource.PLAYER, 1, 1);
+    }
+    AuditLogWriter writer = openWriter();
+    drain(buffer, writer);
+    // The next record is preceded by a gap record counting the two dropped ones.
+    offer(buffer, PLAYER, AuditEventType.DRINK, AuditSource.PLAYER, 1, 1);
+    drain(buffer, writer);
+    writer.close();
+
+    String report = runTool();
+    assertTrue(report.contains("6 records\tok"), report);
+    assertTrue(report.contains("6 records, 2 dropped, 1 players"), report);
+    assertTrue(report.contains("  " + PLAYER + "\t0\t0\t0\t0\t0\t0\t5\t5\t5\t[]"), report);
+  }
+}
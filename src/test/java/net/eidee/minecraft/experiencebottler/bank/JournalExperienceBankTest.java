@@ -0,0 +1,98 @@
+package net.eidee.minecraft.experiencebottler.bank;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalExperienceBankTest {
+  @TempDir Path directory;
+
+  private static UUID player(int index) {
+    return new UUID(0x5850L, index);
+  }
+
+  @Test
+  void replaysJournalAfterCrash() throws IOException {
+    JournalExperienceBank bank = new JournalExperienceBank(directory);
+    bank.setBalance(player(1), 100);
+    bank.setBalance(player(2), 200);
+    bank.setBalance(player(1), 150);
+    bank.setBalance(player(2), 0);
+    bank.flush();
+    // The first bank is never closed, as if the server had crashed.
+
+    JournalExperienceBank reopened = new JournalExperienceBank(directory);
+    assertEquals(150, reopened.getBalance(player(1)));
+    assertEquals(0, reopened.getBalance(player(2)));
+    reopened.close();
+  }
+
+  @Test
+  void dropsTornRecordAtEndOfJournal() throws IOException {
+    JournalExperienceBank bank = new JournalExperienceBank(directory);
+    bank.setBalance(player(1), 100);
+    bank.setBalance(player(2), 200);
+    bank.flush();
+    Files.write(
+        JournalExperienceBank.journalPath(directory, 0),
+        new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10},
+        StandardOpenOption.APPEND);
+
+    JournalExperienceBank reopened = new JournalExperienceBank(directory);
+    assertEquals(100, reopened.getBalance(player(1)));
+    assertEquals(200, reopened.getBalance(player(2)));
+    reopened.setBalance(player(3), 300);
+    reopened.flush();
+
+    JournalExperienceBank again = new JournalExperienceBank(directory);
+    assertEquals(100, again.getBalance(player(1)));
+    assertEquals(200, again.getBalance(player(2)));
+    assertEquals(300, again.getBalance(player(3)));
+    again.close();
+  }
+
+  @Test
+  void compactsJournalIntoSnapshot() throws IOException {
+    JournalExperienceBank bank = new JournalExperienceBank(directory);
+    for (int i = 0; i < 5000; i++) {
+      bank.setBalance(player(i % 10), i + 1);
+    }
+    bank.flush();
+    bank.awaitCompaction();
+
+    assertTrue(Files.exists(directory.resolve("bank.dat")));
+    assertFalse(Files.exists(JournalExperienceBank.journalPath(directory, 0)));
+    bank.setBalance(player(10), 42);
+    bank.flush();
+
+    JournalExperienceBank reopened = new JournalExperienceBank(directory);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(4991 + i, reopened.getBalance(player(i)));
+    }
+    assertEquals(42, reopened.getBalance(player(10)));
+    reopened.close();
+  }
+
+  @Test
+  void closeFoldsEveryJournalIntoSnapshot() throws IOException {
+    JournalExperienceBank bank = new JournalExperienceBank(directory);
+    bank.setBalance(player(1), 100);
+    bank.close();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(1, files.count(), "only the snapshot should be left");
+    }
+    JournalExperienceBank reopened = new JournalExperienceBank(directory);
+    assertEquals(100, reopened.getBalance(player(1)));
+    reopened.close();
+  }
+}
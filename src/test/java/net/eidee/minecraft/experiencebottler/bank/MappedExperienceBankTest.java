@@ -0,0 +1,101 @@
+package net.eidee.minecraft.experiencebottler.bank;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedExperienceBankTest {
+  @TempDir Path directory;
+
+  private static UUID player(int index) {
+    return new UUID(0x5850L, index);
+  }
+
+  @Test
+  void insertsAndLooksUpAccounts() throws IOException {
+    MappedExperienceBank bank = new MappedExperienceBank(directory);
+    bank.setBalance(player(1), 100);
+    bank.setBalance(player(2), 200);
+    bank.setBalance(player(1), 150);
+
+    assertEquals(150, bank.getBalance(player(1)));
+    assertEquals(200, bank.getBalance(player(2)));
+    assertEquals(0, bank.getBalance(player(3)));
+    bank.close();
+  }
+
+  @Test
+  void growsPastInitialCapacity() throws IOException {
+    MappedExperienceBank bank = new MappedExperienceBank(directory);
+    long initialSize = Files.size(directory.resolve("bank.slots"));
+    for (int i = 0; i < 10_000; i++) {
+      bank.setBalance(player(i), i + 1);
+    }
+
+    assertTrue(Files.size(directory.resolve("bank.slots")) > initialSize);
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals(i + 1, bank.getBalance(player(i)), "balance of account " + i);
+    }
+    bank.close();
+  }
+
+  @Test
+  void keepsBalancesAfterReopening() throws IOException {
+    MappedExperienceBank bank = new MappedExperienceBank(directory);
+    for (int i = 0; i < 5000; i++) {
+      bank.setBalance(player(i), i + 1);
+    }
+    bank.close();
+
+    MappedExperienceBank reopened = new MappedExperienceBank(directory);
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i + 1, reopened.getBalance(player(i)), "balance of account " + i);
+    }
+    reopened.close();
+  }
+
+  @Test
+  void settingBalanceToZeroEmptiesAccount() throws IOException {
+    MappedExperienceBank bank = new MappedExperienceBank(directory);
+    bank.setBalance(player(1), 100);
+    bank.setBalance(player(1), 0);
+    bank.setBalance(player(2), 0);
+
+    assertEquals(0, bank.getBalance(player(1)));
+    assertEquals(0, bank.getBalance(player(2)));
+    bank.setBalance(player(1), 50);
+    assertEquals(50, bank.getBalance(player(1)));
+    bank.setBalance(player(1), 0);
+    bank.close();
+
+    MappedExperienceBank reopened = new MappedExperienceBank(directory);
+    assertEquals(0, reopened.getBalance(player(1)));
+    assertEquals(0, reopened.getBalance(player(2)));
+    reopened.close();
+  }
+
+  @Test
+  void writesSlotsInBigEndianOrder() throws IOException {
+    MappedExperienceBank bank = new MappedExperienceBank(directory);
+    bank.setBalance(new UUID(0x0102030405060708L, 0), 0x1112131415161718L);
+    bank.close();
+
+    ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("bank.slots")));
+    assertEquals(0x5850424d41503031L, file.getLong(0), "the magic should read as XPBMAP01");
+    boolean found = false;
+    for (int offset = 64; offset < file.capacity(); offset += 32) {
+      if (file.getLong(offset) == 0x0102030405060708L) {
+        assertEquals(0x1112131415161718L, file.getLong(offset + 16));
+        found = true;
+      }
+    }
+    assertTrue(found, "the account should be stored big-endian");
+  }
+}
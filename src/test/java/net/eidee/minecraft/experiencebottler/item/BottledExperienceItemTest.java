@@ -0,0 +1,50 @@
+package net.eidee.minecraft.experiencebottler.item;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class BottledExperienceItemTest {
+  @BeforeAll
+  static void bootstrap() {
+    // Loading an Item subclass initializes the built-in registries.
+    SharedConstants.tryDetectVersion();
+    Bootstrap.bootStrap();
+  }
+
+  private static List<Integer> split(int experience) {
+    List<Integer> denominations = new ArrayList<>();
+    int remaining = experience;
+    while (remaining > 0) {
+      int denomination = BottledExperienceItem.getDenomination(remaining);
+      denominations.add(denomination);
+      remaining -= denomination;
+    }
+    return denominations;
+  }
+
+  @Test
+  void getDenominationReturnsLargestValueThatFits() {
+    assertEquals(100, BottledExperienceItem.getDenomination(100));
+    assertEquals(100, BottledExperienceItem.getDenomination(499));
+    assertEquals(500, BottledExperienceItem.getDenomination(500));
+    assertEquals(500000, BottledExperienceItem.getDenomination(Integer.MAX_VALUE));
+  }
+
+  @Test
+  void getDenominationReturnsRemainderBelowSmallestValue() {
+    assertEquals(1, BottledExperienceItem.getDenomination(1));
+    assertEquals(99, BottledExperienceItem.getDenomination(99));
+  }
+
+  @Test
+  void denominationsSplitExperienceIntoStackableValues() {
+    assertEquals(List.of(1000, 100, 100, 34), split(1234));
+    assertEquals(List.of(5000, 500, 100, 100, 100, 100, 99), split(5999));
+  }
+}
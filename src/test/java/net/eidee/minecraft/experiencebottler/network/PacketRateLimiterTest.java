@@ -0,0 +1,68 @@
+package net.eidee.minecraft.experiencebottler.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PacketRateLimiterTest {
+  private static final UUID PLAYER = new UUID(0x5850L, 1);
+  private static final UUID OTHER = new UUID(0x5850L, 2);
+  private static final long START = 1_000_000_000L;
+
+  private static PacketRateLimiter createLimiter() {
+    // 10 packets per second, 5 at once.
+    return new PacketRateLimiter("test", () -> 10, () -> 5);
+  }
+
+  @Test
+  void allowsBurstThenDrops() {
+    PacketRateLimiter limiter = createLimiter();
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.tryAcquire(PLAYER, START), "packet " + i + " is within the burst");
+    }
+    assertFalse(limiter.tryAcquire(PLAYER, START));
+    assertEquals(1, limiter.getDroppedPackets(PLAYER));
+  }
+
+  @Test
+  void refillsAtSteadyRate() {
+    PacketRateLimiter limiter = createLimiter();
+    for (int i = 0; i < 5; i++) {
+      limiter.tryAcquire(PLAYER, START);
+    }
+    long later = START + TimeUnit.MILLISECONDS.toNanos(250);
+    assertTrue(limiter.tryAcquire(PLAYER, later));
+    assertTrue(limiter.tryAcquire(PLAYER, later));
+    assertFalse(limiter.tryAcquire(PLAYER, later));
+  }
+
+  @Test
+  void refillStopsAtBurst() {
+    PacketRateLimiter limiter = createLimiter();
+    limiter.tryAcquire(PLAYER, START);
+    long later = START + TimeUnit.SECONDS.toNanos(60);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.tryAcquire(PLAYER, later));
+    }
+    assertFalse(limiter.tryAcquire(PLAYER, later));
+  }
+
+  @Test
+  void countsDropsPerPlayerAndInTotal() {
+    PacketRateLimiter limiter = createLimiter();
+    for (int i = 0; i < 8; i++) {
+      limiter.tryAcquire(PLAYER, START);
+    }
+    for (int i = 0; i < 6; i++) {
+      limiter.tryAcquire(OTHER, START);
+    }
+    assertEquals(3, limiter.getDroppedPackets(PLAYER));
+    assertEquals(1, limiter.getDroppedPackets(OTHER));
+    assertEquals(4, limiter.getDroppedPackets());
+    assertEquals(0, limiter.getDroppedPackets(new UUID(0x5850L, 3)));
+  }
+}
@@ -0,0 +1,93 @@
+package net.eidee.minecraft.experiencebottler.screen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import net.minecraft.network.chat.Component;
+import org.junit.jupiter.api.Test;
+
+class ExperienceSourceClientTest {
+  private static final long START = 1_000_000_000L;
+
+  private static ExperienceSource.Client createClient(long totalExperience) {
+    return ExperienceSource.forClient(Component.empty(), totalExperience);
+  }
+
+  private static void predict(ExperienceSource.Client client, int sequence, long experience) {
+    client.beginPrediction(sequence);
+    client.removeExperience(experience, START);
+  }
+
+  @Test
+  void acknowledgementDropsPredictionsItIncludes() {
+    ExperienceSource.Client client = createClient(1000);
+    predict(client, 1, 100);
+    predict(client, 2, 200);
+    assertEquals(700, client.getTotalExperience());
+
+    client.acknowledge(900, 1);
+    assertEquals(700, client.getTotalExperience());
+    assertTrue(client.hasPredictions());
+
+    client.acknowledge(700, 2);
+    assertEquals(700, client.getTotalExperience());
+    assertFalse(client.hasPredictions());
+  }
+
+  @Test
+  void acknowledgementSkippingSequencesDropsAllEarlierPredictions() {
+    ExperienceSource.Client client = createClient(1000);
+    predict(client, 1, 100);
+    predict(client, 2, 100);
+    predict(client, 3, 100);
+
+    // The server handled 1 and 2 together and only acknowledged the latest.
+    client.acknowledge(800, 2);
+    assertEquals(700, client.getTotalExperience());
+
+    client.acknowledge(700, 3);
+    assertEquals(700, client.getTotalExperience());
+    assertFalse(client.hasPredictions());
+  }
+
+  @Test
+  void staleAcknowledgementKeepsNewerPredictions() {
+    ExperienceSource.Client client = createClient(1000);
+    predict(client, 5, 100);
+
+    // Sent by the server before it handled the prediction.
+    client.acknowledge(1000, 4);
+    assertEquals(900, client.getTotalExperience());
+    assertTrue(client.hasPredictions());
+  }
+
+  @Test
+  void acknowledgementHandlesSequenceWraparound() {
+    ExperienceSource.Client client = createClient(1000);
+    predict(client, Integer.MAX_VALUE, 100);
+    predict(client, Integer.MIN_VALUE, 200);
+
+    client.acknowledge(900, Integer.MAX_VALUE);
+    assertEquals(700, client.getTotalExperience());
+    assertTrue(client.hasPredictions());
+
+    client.acknowledge(700, Integer.MIN_VALUE);
+    assertFalse(client.hasPredictions());
+  }
+
+  @Test
+  void expiresPredictionsNotAcknowledgedInTime() {
+    ExperienceSource.Client client = createClient(1000);
+    predict(client, 1, 100);
+
+    assertFalse(client.expirePredictions(START + TimeUnit.SECONDS.toNanos(1)));
+    assertEquals(900, client.getTotalExperience());
+
+    // The packet was dropped, so the server total never changes.
+    assertTrue(client.expirePredictions(START + TimeUnit.MILLISECONDS.toNanos(2500)));
+    assertEquals(1000, client.getTotalExperience());
+    assertFalse(client.hasPredictions());
+  }
+}
@@ -62,4 +62,144 @@ class ExperienceUtilTest {
       }
     }
   }
+
+  @Test
+  void levelCurvesAgreeForEveryLevel() {
+    ExperienceUtil.LevelCurve analytic = ExperienceUtil.LevelCurve.ANALYTIC;
+    ExperienceUtil.LevelCurve table = ExperienceUtil.LevelCurve.TABLE;
+    for (int level = 0; level <= 21863; ++level) {
+      long total = analytic.totalExperienceAtLevel(level);
+      assertEquals(total, table.totalExperienceAtLevel(level), "total XP at level " + level);
+      for (long experience = total - 1; experience <= total + 1; ++experience) {
+        if (experience <= 0 || experience > Integer.MAX_VALUE) {
+          continue;
+        }
+        assertEquals(
+            analytic.levelFromTotalExperience((int) experience),
+            table.levelFromTotalExperience((int) experience),
+            "level at total XP " + experience);
+      }
+    }
+    assertEquals(21863, table.levelFromTotalExperience(Integer.MAX_VALUE));
+  }
+
+  @Test
+  void addExperienceWritesLevelProgressAndTotalInOneStep() {
+    TestHolder holder = new TestHolder();
+    ExperienceUtil.addExperience(holder, 500_000);
+
+    int level = ExperienceUtil.getLevelFromTotalExperience(500_000);
+    assertEquals(level, holder.experienceLevel);
+    assertEquals(
+        (500_000 - totalExperienceAtLevel(level))
+            / (float) ExperienceUtil.getNextLevelExperience(level),
+        holder.experienceProgress);
+    assertEquals(500_000, holder.totalExperience);
+    assertEquals(500_000, holder.score);
+    assertEquals(1, holder.levelUps, "level-up hook should run once for the whole gain");
+    assertEquals(0, holder.levelUpFrom);
+    assertEquals(level, holder.levelUpTo);
+  }
+
+  @Test
+  void addExperienceRoundTripsThroughEachCurveSegment() {
+    TestHolder holder = new TestHolder();
+    ExperienceUtil.addExperience(holder, 100);
+    for (int experience : new int[] {200, 1_000, 100_000, 5_000_000}) {
+      long before =
+          ExperienceUtil.getTotalExperienceToReachLevel(
+              holder.experienceLevel, holder.experienceProgress);
+      ExperienceUtil.addExperience(holder, experience);
+      ExperienceUtil.addExperience(holder, -experience);
+      assertEquals(
+          before,
+          ExperienceUtil.getTotalExperienceToReachLevel(
+              holder.experienceLevel, holder.experienceProgress));
+    }
+    assertEquals(100, holder.score);
+  }
+
+  @Test
+  void addExperienceClampsAtBothEnds() {
+    TestHolder holder = new TestHolder();
+    ExperienceUtil.addExperience(holder, Integer.MAX_VALUE);
+    ExperienceUtil.addExperience(holder, 500_000);
+    assertEquals(21863, holder.experienceLevel);
+    assertEquals(
+        Integer.MAX_VALUE,
+        ExperienceUtil.getTotalExperienceToReachLevel(
+            holder.experienceLevel, holder.experienceProgress));
+    assertEquals(Integer.MAX_VALUE, holder.score);
+
+    ExperienceUtil.addExperience(holder, Integer.MIN_VALUE);
+    ExperienceUtil.addExperience(holder, -500_000);
+    assertEquals(0, holder.experienceLevel);
+    assertEquals(0.0F, holder.experienceProgress);
+  }
+
+  @Test
+  void addExperienceAlwaysChangesTotalExperienceForSync() {
+    TestHolder holder = new TestHolder();
+    ExperienceUtil.addExperience(holder, 100);
+    holder.totalExperience = 200;
+    ExperienceUtil.addExperience(holder, 100);
+    assertTrue(holder.totalExperience != 200, "an unchanged total would not be synchronized");
+  }
+
+  private static class TestHolder implements ExperienceUtil.ExperienceHolder {
+    int experienceLevel;
+    float experienceProgress;
+    int totalExperience;
+    int score;
+    int levelUps;
+    int levelUpFrom;
+    int levelUpTo;
+
+    @Override
+    public int getExperienceLevel() {
+      return experienceLevel;
+    }
+
+    @Override
+    public void setExperienceLevel(int level) {
+      experienceLevel = level;
+    }
+
+    @Override
+    public float getExperienceProgress() {
+      return experienceProgress;
+    }
+
+    @Override
+    public void setExperienceProgress(float progress) {
+      experienceProgress = progress;
+    }
+
+    @Override
+    public int getTotalExperience() {
+      return totalExperience;
+    }
+
+    @Override
+    public void setTotalExperience(int totalExperience) {
+      this.totalExperience = totalExperience;
+    }
+
+    @Override
+    public int getScore() {
+      return score;
+    }
+
+    @Override
+    public void setScore(int score) {
+      this.score = score;
+    }
+
+    @Override
+    public void onLevelUp(int oldLevel, int newLevel) {
+      levelUps++;
+      levelUpFrom = oldLevel;
+      levelUpTo = newLevel;
+    }
+  }
 }